@@ -0,0 +1,41 @@
+package bootcamp.contracts;
+
+import net.corda.core.transactions.LedgerTransaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures HouseContract.verify for issuance and transfer, single-house and batched. The transfer runs include the
+ * check that every transferred house is unchanged apart from its owner.
+ *
+ * Run with `gradlew benchmarks:jmh`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HouseContractBenchmark {
+
+    @Param({"1", "100"})
+    public int houses;
+
+    private final HouseContract contract = new HouseContract();
+    private LedgerTransaction issueTransaction;
+    private LedgerTransaction transferTransaction;
+
+    @Setup
+    public void setup() {
+        issueTransaction = HouseFixtures.issueTransaction(houses);
+        transferTransaction = HouseFixtures.transferTransaction(houses);
+    }
+
+    @Benchmark
+    public void verifyIssue() {
+        contract.verify(issueTransaction);
+    }
+
+    @Benchmark
+    public void verifyTransfer() {
+        contract.verify(transferTransaction);
+    }
+}
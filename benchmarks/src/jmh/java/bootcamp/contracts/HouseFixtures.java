@@ -0,0 +1,71 @@
+package bootcamp.contracts;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.*;
+import net.corda.core.crypto.Crypto;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.LedgerTransaction;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parties, houses and ledger transactions shared by the benchmarks. Transactions are assembled directly so that the
+ * benchmarks measure contract verification alone, without transaction resolution or a node.
+ */
+final class HouseFixtures {
+
+    static final Party BUILDER = party("Builder", "Mumbai", "IN");
+    static final Party OWNER = party("Owner", "Mumbai", "IN");
+    static final Party NOTARY = party("Notary", "London", "GB");
+
+    private HouseFixtures(){}
+
+    static Party party(String organisation, String locality, String country) {
+        return new Party(new CordaX500Name(organisation, locality, country), Crypto.generateKeyPair().getPublic());
+    }
+
+    static HouseState house(String address, Party owner) {
+        return new HouseState(address, "2000sqft", 3, 2019, BUILDER, owner);
+    }
+
+    static HouseStateV2 houseV2(String address, Party owner) {
+        return new HouseStateV2(address, 2000, AreaUnit.SQUARE_FEET, 3, 2019, BUILDER, owner);
+    }
+
+    static LedgerTransaction issueTransaction(int houses) {
+        ImmutableList.Builder<TransactionState<? extends ContractState>> outputs = ImmutableList.builder();
+        for (int i = 0; i < houses; i++) {
+            outputs.add(new TransactionState<>(house("Unit " + i + ", Powai Mumbai", BUILDER), HouseContract.ID, NOTARY));
+        }
+        return ledgerTransaction(Collections.emptyList(), outputs.build(), new HouseContract.Commands.Issue(),
+                ImmutableList.of(BUILDER));
+    }
+
+    static LedgerTransaction transferTransaction(int houses) {
+        ImmutableList.Builder<StateAndRef<? extends ContractState>> inputs = ImmutableList.builder();
+        ImmutableList.Builder<TransactionState<? extends ContractState>> outputs = ImmutableList.builder();
+        SecureHash issueTxId = SecureHash.randomSHA256();
+        for (int i = 0; i < houses; i++) {
+            String address = "Unit " + i + ", Powai Mumbai";
+            inputs.add(new StateAndRef<>(new TransactionState<>(house(address, BUILDER), HouseContract.ID, NOTARY),
+                    new StateRef(issueTxId, i)));
+            outputs.add(new TransactionState<>(house(address, OWNER), HouseContract.ID, NOTARY));
+        }
+        return ledgerTransaction(inputs.build(), outputs.build(), new HouseContract.Commands.Transfer(),
+                ImmutableList.of(BUILDER, OWNER));
+    }
+
+    @SuppressWarnings("deprecation")
+    private static LedgerTransaction ledgerTransaction(List<StateAndRef<? extends ContractState>> inputs,
+                                                       List<TransactionState<? extends ContractState>> outputs,
+                                                       CommandData command, List<Party> signers) {
+        ImmutableList.Builder<java.security.PublicKey> keys = ImmutableList.builder();
+        signers.forEach(signer -> keys.add(signer.getOwningKey()));
+        return new LedgerTransaction(inputs, outputs,
+                ImmutableList.of(new CommandWithParties<>(keys.build(), signers, command)),
+                Collections.emptyList(), SecureHash.randomSHA256(), NOTARY, null, new PrivacySalt());
+    }
+}
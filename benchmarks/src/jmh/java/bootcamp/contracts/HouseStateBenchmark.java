@@ -0,0 +1,34 @@
+package bootcamp.contracts;
+
+import net.corda.core.identity.AbstractParty;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of creating a HouseState and of listing its participants, both of which happen for every
+ * house in every transaction a node builds or resolves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HouseStateBenchmark {
+
+    private HouseState house;
+
+    @Setup
+    public void setup() {
+        house = HouseFixtures.house("Powai, Mumbai", HouseFixtures.OWNER);
+    }
+
+    @Benchmark
+    public HouseState construct() {
+        return new HouseState("Powai, Mumbai", "2000sqft", 3, 2019, HouseFixtures.BUILDER, HouseFixtures.OWNER);
+    }
+
+    @Benchmark
+    public List<AbstractParty> participants() {
+        return house.getParticipants();
+    }
+}
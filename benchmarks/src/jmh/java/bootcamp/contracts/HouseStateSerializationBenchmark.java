@@ -0,0 +1,104 @@
+package bootcamp.contracts;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import net.corda.client.rpc.internal.serialization.amqp.AMQPClientSerializationScheme;
+import net.corda.core.crypto.Crypto;
+import net.corda.core.serialization.SerializationContext;
+import net.corda.core.serialization.SerializedBytes;
+import net.corda.serialization.internal.SerializationFactoryImpl;
+import net.corda.serialization.internal.SharedContexts;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.NotSerializableException;
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures HouseState round trips through AMQP, the wire format used for transactions, and through Kryo, the format
+ * flows are checkpointed in.
+ *
+ * The Kryo instance mirrors the node's checkpoint configuration where it matters for a HouseState (objenesis
+ * instantiation and public keys written as their encoded form); the node's own checkpoint serializer is internal
+ * to corda-node.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HouseStateSerializationBenchmark {
+
+    private HouseState house;
+
+    private SerializationFactoryImpl amqpFactory;
+    private SerializationContext amqpContext;
+    private SerializedBytes<HouseState> amqpBytes;
+
+    private Kryo kryo;
+    private byte[] kryoBytes;
+
+    @Setup
+    public void setup() throws NotSerializableException {
+        house = HouseFixtures.house("Powai, Mumbai", HouseFixtures.OWNER);
+
+        amqpFactory = new SerializationFactoryImpl();
+        amqpFactory.registerScheme(new AMQPClientSerializationScheme(Collections.emptyList(), new ConcurrentHashMap<>()));
+        amqpContext = SharedContexts.getAMQP_P2P_CONTEXT();
+        amqpBytes = amqpFactory.serialize(house, amqpContext);
+
+        kryo = new Kryo();
+        kryo.setInstantiatorStrategy(new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        kryo.addDefaultSerializer(PublicKey.class, new PublicKeySerializer());
+        kryoBytes = kryoSerialize();
+    }
+
+    @Benchmark
+    public SerializedBytes<HouseState> amqpSerialize() {
+        return amqpFactory.serialize(house, amqpContext);
+    }
+
+    @Benchmark
+    public HouseState amqpDeserialize() throws NotSerializableException {
+        return amqpFactory.deserialize(amqpBytes, HouseState.class, amqpContext);
+    }
+
+    @Benchmark
+    public HouseState amqpRoundTrip() throws NotSerializableException {
+        return amqpFactory.deserialize(amqpFactory.serialize(house, amqpContext), HouseState.class, amqpContext);
+    }
+
+    @Benchmark
+    public byte[] kryoSerialize() {
+        Output output = new Output(1024, -1);
+        kryo.writeClassAndObject(output, house);
+        return output.toBytes();
+    }
+
+    @Benchmark
+    public Object kryoDeserialize() {
+        return kryo.readClassAndObject(new Input(kryoBytes));
+    }
+
+    @Benchmark
+    public Object kryoRoundTrip() {
+        return kryo.readClassAndObject(new Input(kryoSerialize()));
+    }
+
+    private static class PublicKeySerializer extends Serializer<PublicKey> {
+        @Override
+        public void write(Kryo kryo, Output output, PublicKey key) {
+            byte[] encoded = key.getEncoded();
+            output.writeInt(encoded.length, true);
+            output.writeBytes(encoded);
+        }
+
+        @Override
+        public PublicKey read(Kryo kryo, Input input, Class<PublicKey> type) {
+            return Crypto.decodePublicKey(input.readBytes(input.readInt(true)));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package bootcamp.contracts;
+
+import net.corda.client.rpc.internal.serialization.amqp.AMQPClientSerializationScheme;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.TransactionState;
+import net.corda.core.serialization.SerializationContext;
+import net.corda.core.serialization.SerializedBytes;
+import net.corda.serialization.internal.SerializationFactoryImpl;
+import net.corda.serialization.internal.SharedContexts;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.NotSerializableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares HouseState and HouseStateV2 as the outputs of a transaction: the time to serialise and deserialise them
+ * with AMQP, and the serialised size, which is printed once per trial as "outputs-size".
+ *
+ * Each output is serialised as its own component, as it is inside a WireTransaction, so the size is the sum of the
+ * outputs' sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HouseTransactionSizeBenchmark {
+
+    @Param({"V1", "V2"})
+    public String version;
+
+    @Param({"1", "100"})
+    public int houses;
+
+    private List<TransactionState<ContractState>> outputs;
+    private List<SerializedBytes<TransactionState<ContractState>>> serializedOutputs;
+
+    private SerializationFactoryImpl amqpFactory;
+    private SerializationContext amqpContext;
+
+    @Setup
+    public void setup() {
+        amqpFactory = new SerializationFactoryImpl();
+        amqpFactory.registerScheme(new AMQPClientSerializationScheme(Collections.emptyList(), new ConcurrentHashMap<>()));
+        amqpContext = SharedContexts.getAMQP_P2P_CONTEXT();
+
+        outputs = new ArrayList<>(houses);
+        for (int i = 0; i < houses; i++) {
+            String address = "Unit " + i + ", Powai Mumbai";
+            outputs.add(version.equals("V1")
+                    ? new TransactionState<>(HouseFixtures.house(address, HouseFixtures.OWNER), HouseContract.ID, HouseFixtures.NOTARY)
+                    : new TransactionState<>(HouseFixtures.houseV2(address, HouseFixtures.OWNER), HouseContractV2.ID, HouseFixtures.NOTARY));
+        }
+        serializedOutputs = serializeOutputs();
+
+        long bytes = serializedOutputs.stream().mapToLong(serialized -> serialized.getSize()).sum();
+        System.out.println("outputs-size version=" + version + " houses=" + houses + " bytes=" + bytes
+                + " bytesPerHouse=" + bytes / houses);
+    }
+
+    @Benchmark
+    public List<SerializedBytes<TransactionState<ContractState>>> serializeOutputs() {
+        List<SerializedBytes<TransactionState<ContractState>>> serialized = new ArrayList<>(outputs.size());
+        for (TransactionState<ContractState> output : outputs) {
+            serialized.add(amqpFactory.serialize(output, amqpContext));
+        }
+        return serialized;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<TransactionState<ContractState>> deserializeOutputs() throws NotSerializableException {
+        List<TransactionState<ContractState>> deserialized = new ArrayList<>(serializedOutputs.size());
+        for (SerializedBytes<TransactionState<ContractState>> output : serializedOutputs) {
+            deserialized.add(amqpFactory.deserialize(output, TransactionState.class, amqpContext));
+        }
+        return deserialized;
+    }
+}
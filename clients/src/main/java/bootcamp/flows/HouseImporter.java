@@ -0,0 +1,312 @@
+package bootcamp.flows;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.corda.client.rpc.CordaRPCClient;
+import net.corda.client.rpc.CordaRPCConnection;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.utilities.NetworkHostAndPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.corda.core.utilities.NetworkHostAndPort.parse;
+
+/**
+ * Issues every house in a CSV or JSON-lines file through HouseIssueFlow over RPC.
+ *
+ * The file is read a line at a time, so its size is not limited by memory. At most `window` flows are in flight at
+ * once. Each row that is issued is appended to a journal next to the file (`<file>.journal`), and rows already in
+ * the journal are skipped, so an interrupted import can simply be run again. A row that fails is logged and left out
+ * of the journal, so it is tried again on the next run. Rows still in flight when the import is killed are not
+ * journalled either, so resuming may issue up to `window` of them a second time.
+ *
+ * A CSV file must start with a header naming the columns address, buildArea, numberOfBedRooms and constructionYear,
+ * in any order. Fields may be quoted, with "" for a quote inside a field. A file ending in .jsonl or .json holds one
+ * JSON object per line with the same property names.
+ */
+public class HouseImporter {
+    private static final Logger logger = LoggerFactory.getLogger(HouseImporter.class);
+
+    public static final int DEFAULT_WINDOW = 32;
+    private static final long REPORT_INTERVAL_SECONDS = 5;
+    private static final String[] COLUMNS = {"address", "buildArea", "numberOfBedRooms", "constructionYear"};
+
+    private final CordaRPCOps proxy;
+    private final Path file;
+    private final Path journalFile;
+    private final int window;
+    private final Semaphore inFlight;
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private BufferedWriter journal;
+
+    public HouseImporter(CordaRPCOps proxy, Path file, int window) {
+        if (window < 1) throw new IllegalArgumentException("The in-flight window must be at least 1");
+        this.proxy = proxy;
+        this.file = file;
+        this.journalFile = Paths.get(file + ".journal");
+        this.window = window;
+        this.inFlight = new Semaphore(window);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 4 && args.length != 5)
+            throw new IllegalArgumentException("Usage: HouseImporter <node address> <rpc username> <rpc password> <file> [in-flight window]");
+        final NetworkHostAndPort nodeAddress = parse(args[0]);
+        final Path file = Paths.get(args[3]);
+        final int window = args.length == 5 ? Integer.parseInt(args[4]) : DEFAULT_WINDOW;
+
+        final CordaRPCConnection connection = new CordaRPCClient(nodeAddress).start(args[1], args[2]);
+        try {
+            new HouseImporter(connection.getProxy(), file, window).run();
+        } finally {
+            connection.notifyServerAndClose();
+        }
+    }
+
+    /**
+     * Imports the file, returning once every submitted flow has finished.
+     */
+    public void run() throws IOException, InterruptedException {
+        BitSet done = readJournal();
+        logger.info("Importing {} with up to {} flows in flight, {} rows already issued", file, window,
+                done.cardinality());
+
+        long started = System.nanoTime();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        AtomicLong lastIssued = new AtomicLong();
+        reporter.scheduleAtFixedRate(() -> {
+            long now = issued.get();
+            logger.info("{} rows issued, {} failed, {} rows/s", now, failed.get(),
+                    String.format("%.1f", (now - lastIssued.getAndSet(now)) / (double) REPORT_INTERVAL_SECONDS));
+        }, REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RowParser parser = isJsonLines(file) ? new JsonLinesParser() : new CsvParser(reader.readLine());
+            String line;
+            // Row numbers are line numbers, counting from 1, so that they survive the file being fixed in place.
+            for (int row = parser.firstRow(); (line = reader.readLine()) != null; row++) {
+                if (line.trim().isEmpty() || done.get(row)) continue;
+                Row house;
+                try {
+                    house = parser.parse(line);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping row {}: {}", row, e.getMessage());
+                    failed.incrementAndGet();
+                    continue;
+                }
+                submit(row, house);
+            }
+            // Every permit back means every flow has finished.
+            inFlight.acquire(window);
+        } finally {
+            reporter.shutdownNow();
+            synchronized (this) {
+                journal.close();
+            }
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        logger.info("Imported {}: {} rows issued, {} failed, in {}s ({} rows/s)", file, issued.get(), failed.get(),
+                String.format("%.1f", seconds), String.format("%.1f", issued.get() / Math.max(seconds, 1e-3)));
+    }
+
+    private void submit(int row, Row house) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            proxy.startFlowDynamic(HouseIssueFlow.class, house.address, house.buildArea, house.numberOfBedRooms,
+                    house.constructionYear)
+                    .getReturnValue().toCompletableFuture()
+                    .whenComplete((result, error) -> {
+                        try {
+                            if (error == null) completed(row);
+                            else {
+                                logger.warn("Row {} failed: {}", row, error.getMessage());
+                                failed.incrementAndGet();
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            logger.warn("Row {} could not be submitted: {}", row, e.getMessage());
+            failed.incrementAndGet();
+        }
+    }
+
+    private synchronized void completed(int row) {
+        issued.incrementAndGet();
+        try {
+            journal.write(Integer.toString(row));
+            journal.newLine();
+            // Flushed per row, so that a crash loses at most the rows still in flight.
+            journal.flush();
+        } catch (IOException e) {
+            // The house is issued; at worst a resumed import issues it again.
+            logger.error("Could not journal row {}", row, e);
+        }
+    }
+
+    private BitSet readJournal() throws IOException {
+        BitSet done = new BitSet();
+        if (!Files.exists(journalFile)) return done;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    done.set(Integer.parseInt(line.trim()));
+                } catch (NumberFormatException e) {
+                    // A line cut short by a crash; its row is simply issued again.
+                    logger.warn("Ignoring unreadable journal line '{}'", line);
+                }
+            }
+        }
+        return done;
+    }
+
+    private static boolean isJsonLines(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".jsonl") || name.endsWith(".json");
+    }
+
+    private interface RowParser {
+        int firstRow();
+
+        Row parse(String line);
+    }
+
+    private static class JsonLinesParser implements RowParser {
+        private final ObjectMapper mapper = new ObjectMapper();
+
+        @Override
+        public int firstRow() {
+            return 1;
+        }
+
+        @Override
+        public Row parse(String line) {
+            JsonNode row;
+            try {
+                row = mapper.readTree(line);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Not a JSON object: " + e.getMessage());
+            }
+            if (row == null || !row.isObject()) throw new IllegalArgumentException("Not a JSON object");
+            String[] values = new String[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                JsonNode value = row.get(COLUMNS[i]);
+                values[i] = value == null || value.isNull() ? null : value.asText();
+            }
+            return house(values);
+        }
+    }
+
+    private static class CsvParser implements RowParser {
+        private final int[] positions = new int[COLUMNS.length];
+
+        CsvParser(String header) {
+            if (header == null) throw new IllegalArgumentException("The CSV file is empty");
+            Map<String, Integer> byName = new HashMap<>();
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) byName.put(names.get(i).trim().toLowerCase(), i);
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Integer position = byName.get(COLUMNS[i].toLowerCase());
+                if (position == null) throw new IllegalArgumentException("The CSV header has no " + COLUMNS[i] + " column");
+                positions[i] = position;
+            }
+        }
+
+        @Override
+        public int firstRow() {
+            return 2;
+        }
+
+        @Override
+        public Row parse(String line) {
+            List<String> fields = split(line);
+            String[] values = new String[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                values[i] = positions[i] < fields.size() ? fields.get(positions[i]) : null;
+            }
+            return house(values);
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') field.append(c);
+                    else if (i + 1 < line.length() && line.charAt(i + 1) == '"') field.append(line.charAt(++i));
+                    else quoted = false;
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static class Row {
+        private final String address;
+        private final String buildArea;
+        private final Integer numberOfBedRooms;
+        private final Integer constructionYear;
+
+        Row(String address, String buildArea, Integer numberOfBedRooms, Integer constructionYear) {
+            this.address = address;
+            this.buildArea = buildArea;
+            this.numberOfBedRooms = numberOfBedRooms;
+            this.constructionYear = constructionYear;
+        }
+    }
+
+    // The values are in COLUMNS order.
+    private static Row house(String[] values) {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (values[i] == null || values[i].trim().isEmpty())
+                throw new IllegalArgumentException("Missing " + COLUMNS[i]);
+        }
+        return new Row(values[0].trim(), values[1].trim(), integer(COLUMNS[2], values[2]),
+                integer(COLUMNS[3], values[3]));
+    }
+
+    private static Integer integer(String column, String value) {
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a whole number: " + value);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package bootcamp.flows;
+
+import net.corda.client.rpc.CordaRPCClient;
+import net.corda.client.rpc.CordaRPCConnection;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.utilities.NetworkHostAndPort;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Drives a running network (for example the one from deployNodes) over RPC, issuing houses and transferring each
+ * one to the next node, and records every flow's end-to-end latency in an HdrHistogram.
+ *
+ * The run is configured with system properties, as HouseFlowLoadTest is:
+ *
+ * - load.connections: RPC connections to open, spread over the nodes in turn (default two per node).
+ * - load.concurrency: houses in flight at once, each through its issue and then its transfer (default 16).
+ * - load.rate: houses to start per second; 0, the default, starts one whenever a house finishes.
+ * - load.duration and load.warmup: seconds to run for, and seconds at the start not to record (defaults 60 and 10).
+ * - load.output: the prefix of the files the results are exported to (default house-load).
+ *
+ * At a target rate, latency is measured from when a house was due to start rather than when it did, so time spent
+ * waiting for a slot while the nodes fall behind counts against them. With a single node nothing is transferred.
+ */
+public class HouseLoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(HouseLoadGenerator.class);
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final int MAX_ERROR_MESSAGE = 120;
+
+    private final List<RpcNode> nodes;
+    private final int concurrency;
+    private final int rate;
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final String output;
+
+    private final Map<String, Histogram> latencies = new TreeMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Semaphore inFlight;
+    // Completion callbacks start the transfers, and RPC calls must not be made on the RPC client's own threads.
+    private final ExecutorService callbacks = Executors.newCachedThreadPool();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong houses = new AtomicLong();
+    private volatile long recordFrom;
+
+    public HouseLoadGenerator(List<RpcNode> nodes, int concurrency, int rate, long durationSeconds, long warmupSeconds,
+                              String output) {
+        if (nodes.isEmpty()) throw new IllegalArgumentException("At least one RPC connection is needed");
+        if (concurrency < 1) throw new IllegalArgumentException("load.concurrency must be at least 1");
+        if (rate < 0) throw new IllegalArgumentException("load.rate cannot be negative");
+        this.nodes = nodes;
+        this.concurrency = concurrency;
+        this.rate = rate;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.output = output;
+        this.inFlight = new Semaphore(concurrency);
+        latencies.put("HouseIssueFlow", new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+        latencies.put("HouseTransferInitiator", new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 3)
+            throw new IllegalArgumentException("Usage: HouseLoadGenerator <node address>[,<node address>...] <rpc username> <rpc password>");
+        final List<NetworkHostAndPort> addresses = Arrays.stream(args[0].split(","))
+                .map(String::trim).map(NetworkHostAndPort::parse).collect(Collectors.toList());
+        final int connections = Integer.getInteger("load.connections", 2 * addresses.size());
+
+        final List<CordaRPCConnection> opened = new ArrayList<>();
+        try {
+            List<RpcNode> nodes = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                CordaRPCConnection connection = new CordaRPCClient(addresses.get(i % addresses.size()))
+                        .start(args[1], args[2]);
+                opened.add(connection);
+                nodes.add(new RpcNode(connection.getProxy()));
+            }
+            new HouseLoadGenerator(nodes,
+                    Integer.getInteger("load.concurrency", 16),
+                    Integer.getInteger("load.rate", 0),
+                    Integer.getInteger("load.duration", 60),
+                    Integer.getInteger("load.warmup", 10),
+                    System.getProperty("load.output", "house-load")).run();
+        } finally {
+            opened.forEach(CordaRPCConnection::notifyServerAndClose);
+        }
+    }
+
+    /**
+     * Runs the load for the configured duration, waits for the houses in flight, then prints and exports the results.
+     */
+    public void run() throws IOException, InterruptedException {
+        List<Party> parties = nodes.stream().map(node -> node.party).distinct().collect(Collectors.toList());
+        logger.info("Running {} connections to {} nodes, {} houses in flight, {} for {}s after a {}s warm-up",
+                nodes.size(), parties.size(), concurrency, rate == 0 ? "as fast as possible" : rate + " houses/s",
+                TimeUnit.NANOSECONDS.toSeconds(durationNanos), TimeUnit.NANOSECONDS.toSeconds(warmupNanos));
+
+        long started = System.nanoTime();
+        recordFrom = started + warmupNanos;
+        long stopAt = recordFrom + durationNanos;
+        for (long house = 0; ; house++) {
+            long due = rate == 0 ? System.nanoTime() : started + house * TimeUnit.SECONDS.toNanos(1) / rate;
+            if (due >= stopAt) break;
+            long wait = due - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            inFlight.acquire();
+            if (rate == 0) due = System.nanoTime();
+            if (due >= stopAt) {
+                inFlight.release();
+                break;
+            }
+            issue(nodes.get((int) (house % nodes.size())), parties, due);
+        }
+
+        if (!inFlight.tryAcquire(concurrency, 2, TimeUnit.MINUTES))
+            logger.warn("Gave up waiting for {} houses still in flight", concurrency - inFlight.availablePermits());
+        callbacks.shutdown();
+        report(TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+    }
+
+    private void issue(RpcNode node, List<Party> parties, long due) {
+        String address = "Load " + runId + " " + houses.incrementAndGet();
+        start(node, "HouseIssueFlow", due, () -> {
+            Party newOwner = parties.get((parties.indexOf(node.party) + 1) % parties.size());
+            if (newOwner.equals(node.party)) {
+                inFlight.release();
+                return;
+            }
+            start(node, "HouseTransferInitiator", System.nanoTime(), inFlight::release,
+                    HouseTransferFlow.HouseTransferInitiator.class, newOwner, address);
+        }, HouseIssueFlow.class, address, "2000sqft", 3, 2019);
+    }
+
+    // Starts a flow and records its latency from `due`. Then runs next if it succeeded, or releases the house's slot.
+    private <T> void start(RpcNode node, String flowName, long due, Runnable next,
+                           Class<? extends FlowLogic<? extends T>> flowClass, Object... args) {
+        try {
+            node.proxy.startFlowDynamic(flowClass, args).getReturnValue().toCompletableFuture()
+                    .whenCompleteAsync((result, error) -> {
+                        long now = System.nanoTime();
+                        if (due >= recordFrom) {
+                            if (error == null) latencies.get(flowName).recordValue(
+                                    Math.min(TimeUnit.NANOSECONDS.toMicros(now - due), HIGHEST_LATENCY_MICROS));
+                            else recordError(flowName, error);
+                        }
+                        if (error == null) next.run();
+                        else inFlight.release();
+                    }, callbacks);
+        } catch (RuntimeException e) {
+            if (due >= recordFrom) recordError(flowName, e);
+            inFlight.release();
+        }
+    }
+
+    private void recordError(String flowName, Throwable error) {
+        Throwable cause = error.getCause() != null && error instanceof CompletionException
+                ? error.getCause() : error;
+        String message = String.valueOf(cause.getMessage());
+        if (message.length() > MAX_ERROR_MESSAGE) message = message.substring(0, MAX_ERROR_MESSAGE) + "...";
+        errors.computeIfAbsent(flowName + ": " + cause.getClass().getName() + ": " + message, key -> new LongAdder())
+                .increment();
+    }
+
+    private void report(long seconds) throws IOException {
+        try (PrintStream summary = new PrintStream(new FileOutputStream(output + "-summary.txt"), true, "UTF-8")) {
+            for (Map.Entry<String, Histogram> flow : latencies.entrySet()) {
+                Histogram histogram = flow.getValue();
+                StringBuilder line = new StringBuilder(String.format("%-24s flows=%d throughput=%.1f flows/s",
+                        flow.getKey(), histogram.getTotalCount(), histogram.getTotalCount() / (double) Math.max(seconds, 1)));
+                for (double percentile : PERCENTILES) {
+                    line.append(String.format(" p%s=%.1fms", percentile == (long) percentile
+                            ? Long.toString((long) percentile) : Double.toString(percentile),
+                            histogram.getValueAtPercentile(percentile) / 1000.0));
+                }
+                line.append(String.format(" max=%.1fms", histogram.getMaxValue() / 1000.0));
+                print(summary, line.toString());
+
+                // The full distribution, in the format HdrHistogram's plotter reads, scaled to milliseconds.
+                try (PrintStream distribution = new PrintStream(
+                        new FileOutputStream(output + "-" + flow.getKey() + ".hgrm"), true, "UTF-8")) {
+                    histogram.outputPercentileDistribution(distribution, 1000.0);
+                }
+            }
+            long failures = errors.values().stream().mapToLong(LongAdder::sum).sum();
+            print(summary, "errors=" + failures);
+            new TreeMap<>(errors).forEach((error, count) -> print(summary, String.format("%8d %s", count.sum(), error)));
+        }
+        logger.info("Results exported to {}-*", output);
+    }
+
+    private static void print(PrintStream summary, String line) {
+        System.out.println(line);
+        summary.println(line);
+    }
+
+    /**
+     * One RPC connection and the identity of the node it is connected to.
+     */
+    public static class RpcNode {
+        private final CordaRPCOps proxy;
+        private final Party party;
+
+        public RpcNode(CordaRPCOps proxy) {
+            this.proxy = proxy;
+            this.party = proxy.nodeInfo().getLegalIdentities().get(0);
+        }
+    }
+}
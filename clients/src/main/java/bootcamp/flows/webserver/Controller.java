@@ -1,27 +1,171 @@
 package bootcamp.flows.webserver;
 
-import net.corda.core.messaging.CordaRPCOps;
+import bootcamp.contracts.House;
+import bootcamp.flows.HouseAggregateRow;
+import bootcamp.flows.HouseAggregates;
+import bootcamp.flows.HouseIssueFlow;
+import bootcamp.flows.HouseTransferFlow;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.FlowHandle;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.core.transactions.SignedTransaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 /**
  * Define your API endpoints here.
+ *
+ * Endpoints that act on a node take an optional `party` parameter holding the X500 name of the node to route the
+ * call to. Without it, calls go to the pool's default node.
  */
 @RestController
 @RequestMapping("/") // The paths for HTTP requests are relative to this base path.
 public class Controller {
-    private final CordaRPCOps proxy;
+    private final NodeRPCConnectionPool rpc;
+    private final FlowResults flowResults;
+    private final HouseCache houseCache;
+    private final HouseListing houseListing;
     private final static Logger logger = LoggerFactory.getLogger(Controller.class);
+    // Aggregates order their own groups.
+    private final static Sort UNSORTED = new Sort(Collections.emptyList());
 
-    public Controller(NodeRPCConnection rpc) {
-        this.proxy = rpc.proxy;
+    public Controller(NodeRPCConnectionPool rpc, FlowResults flowResults, HouseCache houseCache,
+                      HouseListing houseListing) {
+        this.rpc = rpc;
+        this.flowResults = flowResults;
+        this.houseCache = houseCache;
+        this.houseListing = houseListing;
     }
 
     @GetMapping(value = "/templateendpoint", produces = "text/plain")
     private String templateendpoint() {
         return "Define an endpoint here.";
     }
-}
\ No newline at end of file
+
+    @GetMapping(value = "/me", produces = "text/plain")
+    private String me(@RequestParam(value = "party", required = false) String party) {
+        return rpc.call(node(party), proxy -> proxy.nodeInfo().getLegalIdentities().get(0).getName().toString());
+    }
+
+    @GetMapping(value = "/rpc-pool", produces = APPLICATION_JSON_VALUE)
+    private List<Map<String, Object>> rpcPool() {
+        return rpc.statistics();
+    }
+
+    /**
+     * Starts HouseIssueFlow and returns its flow ID at once; poll /flows/{flowId} for the outcome.
+     */
+    @PostMapping(value = "/houses", produces = APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    private Map<String, Object> issueHouse(@RequestParam("address") String address,
+                                           @RequestParam("buildArea") String buildArea,
+                                           @RequestParam("numberOfBedRooms") Integer numberOfBedRooms,
+                                           @RequestParam("constructionYear") Integer constructionYear,
+                                           @RequestParam(value = "party", required = false) String party) {
+        return rpc.call(node(party), proxy -> {
+            FlowHandle<SignedTransaction> flow = proxy.startFlowDynamic(HouseIssueFlow.class,
+                    address, buildArea, numberOfBedRooms, constructionYear);
+            return flowResults.track("HouseIssueFlow", flow.getId(), flow.getReturnValue());
+        });
+    }
+
+    /**
+     * Starts HouseTransferInitiator and returns its flow ID at once; poll /flows/{flowId} for the outcome.
+     */
+    @PostMapping(value = "/houses/transfer", produces = APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    private Map<String, Object> transferHouse(@RequestParam("address") String address,
+                                              @RequestParam("newOwner") String newOwner,
+                                              @RequestParam(value = "party", required = false) String party) {
+        return rpc.call(node(party), proxy -> {
+            Party newOwnerParty = proxy.wellKnownPartyFromX500Name(CordaX500Name.parse(newOwner));
+            if (newOwnerParty == null) throw new IllegalArgumentException("Unknown party " + newOwner);
+            FlowHandle<SignedTransaction> flow = proxy.startFlowDynamic(HouseTransferFlow.HouseTransferInitiator.class,
+                    newOwnerParty, address);
+            return flowResults.track("HouseTransferInitiator", flow.getId(), flow.getReturnValue());
+        });
+    }
+
+    /**
+     * Lists houses a page at a time; pass the returned nextCursor back to fetch the following page.
+     */
+    @GetMapping(value = "/houses", produces = APPLICATION_JSON_VALUE)
+    private StreamingResponseBody listHouses(@RequestParam(value = "owner", required = false) String owner,
+                                             @RequestParam(value = "builder", required = false) String builder,
+                                             @RequestParam(value = "minConstructionYear", required = false) Integer minConstructionYear,
+                                             @RequestParam(value = "maxConstructionYear", required = false) Integer maxConstructionYear,
+                                             @RequestParam(value = "numberOfBedRooms", required = false) Integer numberOfBedRooms,
+                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "pageSize", defaultValue = "" + HouseListing.DEFAULT_PAGE_SIZE) int pageSize,
+                                             @RequestParam(value = "party", required = false) String party) {
+        HouseListing.Filter filter = new HouseListing.Filter(
+                owner == null ? null : CordaX500Name.parse(owner),
+                builder == null ? null : CordaX500Name.parse(builder),
+                minConstructionYear, maxConstructionYear, numberOfBedRooms);
+        return houseListing.page(node(party), filter, cursor, pageSize);
+    }
+
+    /**
+     * The house at an address on the default node, served from the house cache.
+     */
+    @GetMapping(value = "/houses/by-address", produces = APPLICATION_JSON_VALUE)
+    private ResponseEntity<HouseView> houseByAddress(@RequestParam("address") String address) {
+        HouseView house = houseCache.findByAddress(address);
+        return house == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(house);
+    }
+
+    @GetMapping(value = "/houses/by-owner", produces = APPLICATION_JSON_VALUE)
+    private List<HouseView> housesByOwner(@RequestParam("owner") String owner) {
+        return houseCache.findByOwner(CordaX500Name.parse(owner));
+    }
+
+    @GetMapping(value = "/houses/by-builder", produces = APPLICATION_JSON_VALUE)
+    private List<HouseView> housesByBuilder(@RequestParam("builder") String builder) {
+        return houseCache.findByBuilder(CordaX500Name.parse(builder));
+    }
+
+    /**
+     * Counts houses, or sums their bedrooms, grouped by the given dimensions, in the database of the node.
+     */
+    @GetMapping(value = "/houses/aggregates", produces = APPLICATION_JSON_VALUE)
+    private List<HouseAggregateRow> houseAggregates(@RequestParam("measure") HouseAggregates.Measure measure,
+                                                    @RequestParam(value = "groupBy", required = false) List<HouseAggregates.Dimension> groupBy,
+                                                    @RequestParam(value = "party", required = false) String party) {
+        return rpc.call(node(party), proxy -> HouseAggregates.query(measure, groupBy, (criteria, paging) ->
+                proxy.vaultQueryBy(criteria, paging, UNSORTED, House.class)));
+    }
+
+    @GetMapping(value = "/houses/cache", produces = APPLICATION_JSON_VALUE)
+    private Map<String, Map<String, Object>> houseCacheStatistics() {
+        return houseCache.statistics();
+    }
+
+    @GetMapping(value = "/flows/{flowId}", produces = APPLICATION_JSON_VALUE)
+    private ResponseEntity<Map<String, Object>> flowStatus(@PathVariable("flowId") UUID flowId) {
+        Map<String, Object> status = flowResults.status(flowId);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    private String badRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+    // The node a request is routed to: the named party, or the default node when none is given.
+    private CordaX500Name node(String party) {
+        return party == null || party.isEmpty() ? rpc.getDefaultNode() : CordaX500Name.parse(party);
+    }
+}
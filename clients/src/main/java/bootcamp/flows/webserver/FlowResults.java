@@ -0,0 +1,93 @@
+package bootcamp.flows.webserver;
+
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.StateMachineRunId;
+import net.corda.core.transactions.SignedTransaction;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers the outcome of flows started through the webserver, so that clients can be handed a flow ID straight
+ * away and poll for the result instead of holding a request open until finality.
+ *
+ * Only the most recent flows are kept; older outcomes are dropped once the limit is reached.
+ */
+@Component
+public class FlowResults {
+    private static final int MAX_TRACKED_FLOWS = 10_000;
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final Map<UUID, FlowResult> results = new LinkedHashMap<UUID, FlowResult>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, FlowResult> eldest) {
+            return size() > MAX_TRACKED_FLOWS;
+        }
+    };
+
+    /**
+     * Starts tracking a flow and records its outcome when its return value completes.
+     */
+    public Map<String, Object> track(String flowName, StateMachineRunId runId, CordaFuture<SignedTransaction> returnValue) {
+        FlowResult result = new FlowResult(flowName, runId.getUuid());
+        synchronized (results) {
+            results.put(result.flowId, result);
+        }
+        returnValue.then(future -> {
+            try {
+                result.complete(future.get().getId().toString());
+            } catch (Exception e) {
+                result.fail(e.getCause() != null ? e.getCause() : e);
+            }
+            return null;
+        });
+        return result.toMap();
+    }
+
+    /**
+     * The flow's current status, or null if it was not started here or has been forgotten.
+     */
+    public Map<String, Object> status(UUID flowId) {
+        FlowResult result;
+        synchronized (results) {
+            result = results.get(flowId);
+        }
+        return result == null ? null : result.toMap();
+    }
+
+    private static class FlowResult {
+        private final String flowName;
+        private final UUID flowId;
+        private volatile Status status = Status.RUNNING;
+        private volatile String transactionId;
+        private volatile String error;
+
+        FlowResult(String flowName, UUID flowId) {
+            this.flowName = flowName;
+            this.flowId = flowId;
+        }
+
+        void complete(String transactionId) {
+            this.transactionId = transactionId;
+            this.status = Status.COMPLETED;
+        }
+
+        void fail(Throwable error) {
+            this.error = error.getMessage();
+            this.status = Status.FAILED;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("flowId", flowId.toString());
+            map.put("flowName", flowName);
+            map.put("status", status);
+            if (transactionId != null) map.put("transactionId", transactionId);
+            if (error != null) map.put("error", error);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package bootcamp.flows.webserver;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseSchemaV1;
+import bootcamp.flows.HouseQueries;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rx.Subscription;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singletonList;
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+/**
+ * An in-memory copy of the unconsumed houses on the default node, looked up by address, owner or builder.
+ *
+ * The cache is seeded from the vault on startup and kept current from the shared HouseUpdateFeed. Lookups that miss
+ * fall back to a vault query over RPC and cache the result. Each of the three caches is bounded, evicting the least
+ * recently used entries, and records hit/miss statistics.
+ *
+ * `config.cache.maxHouses` bounds the address cache, and `config.cache.maxParties` bounds the owner and builder
+ * caches. Vault queries are read a page at a time, and an owner or builder with more than `config.cache.maxPortfolio`
+ * houses is refused rather than loaded; list those through the paged /houses endpoint.
+ */
+@Component
+public class HouseCache {
+    private final static Logger logger = LoggerFactory.getLogger(HouseCache.class);
+
+    // Every vault query is read this many houses at a time, so no single RPC response grows with the vault.
+    private static final int PAGE_SIZE = 1_000;
+    private static final Sort BY_STATE_REF = new Sort(singletonList(new Sort.SortColumn(
+            new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF), Sort.Direction.ASC)));
+
+    private final NodeRPCConnectionPool rpc;
+    private final HouseUpdateFeed feed;
+
+    @Value("${config.cache.maxHouses:100000}")
+    private long maxHouses;
+    @Value("${config.cache.maxParties:10000}")
+    private long maxParties;
+    @Value("${config.cache.maxPortfolio:10000}")
+    private long maxPortfolio;
+
+    private Cache<String, HouseView> byAddress;
+    private Cache<String, List<HouseView>> byOwner;
+    private Cache<String, List<HouseView>> byBuilder;
+
+    // Bumped on every vault update. A vault query whose result may predate an update it raced with is returned to
+    // the caller but not cached.
+    private final AtomicLong updates = new AtomicLong();
+    // States consumed while the seed is being loaded, which the seed must not put back.
+    private final Set<StateRef> consumedWhileSeeding = ConcurrentHashMap.newKeySet();
+    private volatile boolean seeding;
+    private Subscription subscription;
+
+    public HouseCache(NodeRPCConnectionPool rpc, HouseUpdateFeed feed) {
+        this.rpc = rpc;
+        this.feed = feed;
+    }
+
+    @PostConstruct
+    public void start() {
+        byAddress = Caffeine.newBuilder().maximumSize(maxHouses).recordStats().build();
+        byOwner = Caffeine.newBuilder().maximumSize(maxParties).recordStats().build();
+        byBuilder = Caffeine.newBuilder().maximumSize(maxParties).recordStats().build();
+
+        // Subscribe before seeding so that no update falls between the snapshot and the feed.
+        seeding = true;
+        subscription = feed.getUpdates().subscribe(this::apply,
+                error -> logger.error("HouseState cache stopped receiving updates", error));
+        try {
+            seed();
+        } finally {
+            seeding = false;
+            consumedWhileSeeding.clear();
+        }
+    }
+
+    private void seed() {
+        List<HouseView> seeded = new ArrayList<>();
+        long available = 0;
+        for (int page = DEFAULT_PAGE_NUM; seeded.size() < maxHouses; page++) {
+            PageSpecification paging = new PageSpecification(page, PAGE_SIZE);
+            Vault.Page<House> results = rpc.call(proxy -> proxy.vaultQueryBy(
+                    new QueryCriteria.VaultQueryCriteria(), paging, BY_STATE_REF, House.class));
+            available = results.getTotalStatesAvailable();
+            for (StateAndRef<House> state : results.getStates()) {
+                if (consumedWhileSeeding.contains(state.getRef())) continue;
+                HouseView house = HouseView.of(state);
+                byAddress.asMap().putIfAbsent(addressKey(house.getAddress()), house);
+                seeded.add(house);
+            }
+            if ((long) page * PAGE_SIZE >= available) break;
+        }
+        // The owner and builder lists are only complete when every house fitted in the seed.
+        if (seeded.size() >= available && updates.get() == 0) {
+            byOwner.putAll(seeded.stream().collect(Collectors.groupingBy(HouseView::getOwner)));
+            byBuilder.putAll(seeded.stream().collect(Collectors.groupingBy(HouseView::getBuilder)));
+        }
+        logger.info("Seeded the house cache with {} of {} houses on {}", seeded.size(), available,
+                rpc.getDefaultNode());
+    }
+
+    private void apply(Vault.Update<House> update) {
+        updates.incrementAndGet();
+        for (StateAndRef<House> state : update.getConsumed()) {
+            if (seeding) consumedWhileSeeding.add(state.getRef());
+            String stateRef = HouseView.stateRef(state.getRef());
+            byAddress.asMap().computeIfPresent(addressKey(state.getState().getData().getAddress()),
+                    (address, cached) -> cached.getStateRef().equals(stateRef) ? null : cached);
+            invalidateParties(state.getState().getData());
+        }
+        for (StateAndRef<House> state : update.getProduced()) {
+            HouseView house = HouseView.of(state);
+            byAddress.put(addressKey(house.getAddress()), house);
+            invalidateParties(state.getState().getData());
+        }
+    }
+
+    private void invalidateParties(House house) {
+        byOwner.invalidate(house.getOwner().getName().toString());
+        byBuilder.invalidate(house.getBuilder().getName().toString());
+    }
+
+    /**
+     * The unconsumed house at the given address, or null if there is none.
+     */
+    public HouseView findByAddress(String address) {
+        String key = addressKey(address);
+        HouseView house = byAddress.getIfPresent(key);
+        if (house != null) return house;
+        long before = updates.get();
+        List<StateAndRef<House>> found = rpc.call(proxy -> proxy.vaultQueryBy(HouseQueries.byAddress(address),
+                new PageSpecification(DEFAULT_PAGE_NUM, 1), BY_STATE_REF, House.class)).getStates();
+        house = found.isEmpty() ? null : HouseView.of(found.get(0));
+        if (house != null && updates.get() == before) byAddress.put(key, house);
+        return house;
+    }
+
+    /**
+     * The unconsumed houses owned by the given party.
+     */
+    public List<HouseView> findByOwner(CordaX500Name owner) {
+        return find(byOwner, owner.toString(), HouseQueries.byOwner(owner));
+    }
+
+    /**
+     * The unconsumed houses built by the given party.
+     */
+    public List<HouseView> findByBuilder(CordaX500Name builder) {
+        return find(byBuilder, builder.toString(), HouseQueries.byBuilder(builder));
+    }
+
+    private List<HouseView> find(Cache<String, List<HouseView>> cache, String key, QueryCriteria criteria) {
+        List<HouseView> houses = cache.getIfPresent(key);
+        if (houses != null) return houses;
+        long before = updates.get();
+        houses = Collections.unmodifiableList(query(criteria, maxPortfolio));
+        if (updates.get() == before) cache.put(key, houses);
+        return houses;
+    }
+
+    // Reads the matching houses a page at a time, refusing up front if there are more than `max` of them.
+    private List<HouseView> query(QueryCriteria criteria, long max) {
+        List<HouseView> houses = new ArrayList<>();
+        for (int page = DEFAULT_PAGE_NUM; ; page++) {
+            PageSpecification paging = new PageSpecification(page, (int) Math.min(PAGE_SIZE, max));
+            Vault.Page<House> results = rpc.call(proxy -> proxy.vaultQueryBy(
+                    criteria, paging, BY_STATE_REF, House.class));
+            if (results.getTotalStatesAvailable() > max)
+                throw new IllegalArgumentException(results.getTotalStatesAvailable() + " Houses Match, More Than "
+                        + max + "; List Them A Page At A Time With /houses");
+            results.getStates().forEach(state -> houses.add(HouseView.of(state)));
+            if ((long) page * paging.getPageSize() >= results.getTotalStatesAvailable()) return houses;
+        }
+    }
+
+    /**
+     * Size and hit/miss counts for each of the caches.
+     */
+    public Map<String, Map<String, Object>> statistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        statistics.put("byAddress", statistics(byAddress));
+        statistics.put("byOwner", statistics(byOwner));
+        statistics.put("byBuilder", statistics(byBuilder));
+        return statistics;
+    }
+
+    private static Map<String, Object> statistics(Cache<String, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", cache.estimatedSize());
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictions", stats.evictionCount());
+        return statistics;
+    }
+
+    private static String addressKey(String address) {
+        return HouseSchemaV1.normalizeAddress(address);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (subscription != null) subscription.unsubscribe();
+    }
+}
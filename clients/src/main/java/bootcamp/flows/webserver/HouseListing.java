@@ -0,0 +1,198 @@
+package bootcamp.flows.webserver;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseSchemaV1;
+import bootcamp.flows.HouseQueries;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+/**
+ * Lists the unconsumed houses on a node one page at a time, in address order.
+ *
+ * Each page is read from the vault with a PageSpecification and written to the response as it is serialised, so
+ * neither the webserver nor the client holds more than one page. The response carries an opaque `nextCursor` to pass
+ * back for the following page; it is null on the last page. The cursor holds the normalized address and state ref of
+ * the last house returned, and the next page starts after it, so houses issued or consumed between calls do not
+ * make later pages skip or repeat houses. A cursor is only valid with the filters it was issued for.
+ */
+@Component
+public class HouseListing {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1_000;
+
+    // Address order for readers, with the state ref as a tie-breaker so that pages never overlap.
+    private static final Sort BY_ADDRESS = new Sort(Arrays.asList(
+            new Sort.SortColumn(new SortAttribute.Custom(HouseSchemaV1.PersistentHouse.class, "normalizedAddress"),
+                    Sort.Direction.ASC),
+            new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF), Sort.Direction.ASC)));
+    // Houses sharing the last page's final address are few, but are read in bounded pages all the same.
+    private static final int TIE_PAGE_SIZE = 100;
+
+    private final NodeRPCConnectionPool rpc;
+    private final ObjectMapper objectMapper;
+
+    public HouseListing(NodeRPCConnectionPool rpc, ObjectMapper objectMapper) {
+        this.rpc = rpc;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the page after the cursor (the first page when it is null) and returns a body that streams it.
+     * `totalHouses` is only counted for the first page.
+     */
+    public StreamingResponseBody page(CordaX500Name node, Filter filter, String cursor, int pageSize) {
+        if(pageSize < 1 || pageSize > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Page Size Must Be Between 1 And " + MAX_PAGE_SIZE);
+        Cursor after = cursor == null || cursor.isEmpty() ? null : Cursor.decode(cursor, filter);
+
+        QueryCriteria criteria = filter.criteria();
+        List<StateAndRef<House>> states = new ArrayList<>();
+        if (after != null) {
+            // The rest of the houses at the cursor's address, then the houses at later addresses.
+            states.addAll(housesAtAddressAfter(node, criteria, after, pageSize));
+            criteria = criteria.and(HouseQueries.byAddressAfter(after.normalizedAddress));
+        }
+        Long totalHouses = null;
+        boolean more = false;
+        if (states.size() < pageSize) {
+            PageSpecification paging = new PageSpecification(DEFAULT_PAGE_NUM, pageSize - states.size());
+            QueryCriteria remaining = criteria;
+            Vault.Page<House> page = rpc.call(node, proxy -> proxy.vaultQueryBy(
+                    remaining, paging, BY_ADDRESS, House.class));
+            states.addAll(page.getStates());
+            more = page.getTotalStatesAvailable() > page.getStates().size();
+            if (after == null) totalHouses = page.getTotalStatesAvailable();
+        } else {
+            more = true;
+        }
+        String nextCursor = !more || states.isEmpty() ? null
+                : Cursor.of(states.get(states.size() - 1)).encode(filter);
+
+        Long total = totalHouses;
+        return out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("houses");
+                for (StateAndRef<House> state : states) {
+                    json.writeObject(HouseView.of(state));
+                }
+                json.writeEndArray();
+                if (total != null) json.writeNumberField("totalHouses", total);
+                json.writeStringField("nextCursor", nextCursor);
+                json.writeEndObject();
+            }
+        };
+    }
+
+    // The houses matching the criteria at the cursor's address whose state ref sorts after the cursor's, up to max.
+    private List<StateAndRef<House>> housesAtAddressAfter(CordaX500Name node, QueryCriteria criteria,
+                                                               Cursor after, int max) {
+        QueryCriteria atAddress = criteria.and(HouseQueries.byAddress(after.normalizedAddress));
+        List<StateAndRef<House>> houses = new ArrayList<>();
+        for (int pageNumber = DEFAULT_PAGE_NUM; houses.size() < max; pageNumber++) {
+            PageSpecification paging = new PageSpecification(pageNumber, TIE_PAGE_SIZE);
+            Vault.Page<House> page = rpc.call(node, proxy -> proxy.vaultQueryBy(
+                    atAddress, paging, BY_ADDRESS, House.class));
+            for (StateAndRef<House> state : page.getStates()) {
+                if (houses.size() < max && compare(state.getRef(), after.txHash, after.index) > 0) houses.add(state);
+            }
+            if ((long) pageNumber * TIE_PAGE_SIZE >= page.getTotalStatesAvailable()) break;
+        }
+        return houses;
+    }
+
+    // The order the vault sorts state refs in: by transaction id, then output index.
+    private static int compare(StateRef ref, String txHash, int index) {
+        int byHash = ref.getTxhash().toString().compareTo(txHash);
+        return byHash != 0 ? byHash : Integer.compare(ref.getIndex(), index);
+    }
+
+    // The last house a page returned.
+    private static class Cursor {
+        private final String normalizedAddress;
+        private final String txHash;
+        private final int index;
+
+        private Cursor(String normalizedAddress, String txHash, int index) {
+            this.normalizedAddress = normalizedAddress;
+            this.txHash = txHash;
+            this.index = index;
+        }
+
+        static Cursor of(StateAndRef<House> state) {
+            return new Cursor(HouseSchemaV1.normalizeAddress(state.getState().getData().getAddress()),
+                    state.getRef().getTxhash().toString(), state.getRef().getIndex());
+        }
+
+        String encode(Filter filter) {
+            // The address goes last, as it is the only part that may contain the separator.
+            String cursor = filter.fingerprint() + "|" + txHash + "|" + index + "|" + normalizedAddress;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor, Filter filter) {
+            String[] parts;
+            try {
+                parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid Cursor");
+            }
+            if(parts.length != 4 || !parts[1].matches("[0-9A-F]{64}") || !parts[2].matches("[0-9]{1,9}"))
+                throw new IllegalArgumentException("Invalid Cursor");
+            if(!parts[0].equals(filter.fingerprint()))
+                throw new IllegalArgumentException("Cursor Was Issued For Different Filters");
+            return new Cursor(parts[3], parts[1], Integer.parseInt(parts[2]));
+        }
+    }
+
+    /**
+     * The optional filters a listing can be narrowed by. Null fields do not filter.
+     */
+    public static class Filter {
+        private final CordaX500Name owner;
+        private final CordaX500Name builder;
+        private final Integer minConstructionYear;
+        private final Integer maxConstructionYear;
+        private final Integer numberOfBedRooms;
+
+        public Filter(CordaX500Name owner, CordaX500Name builder, Integer minConstructionYear,
+                      Integer maxConstructionYear, Integer numberOfBedRooms) {
+            this.owner = owner;
+            this.builder = builder;
+            this.minConstructionYear = minConstructionYear;
+            this.maxConstructionYear = maxConstructionYear;
+            this.numberOfBedRooms = numberOfBedRooms;
+        }
+
+        QueryCriteria criteria() {
+            QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED);
+            if (owner != null) criteria = criteria.and(HouseQueries.byOwner(owner));
+            if (builder != null) criteria = criteria.and(HouseQueries.byBuilder(builder));
+            if (minConstructionYear != null || maxConstructionYear != null)
+                criteria = criteria.and(HouseQueries.byConstructionYear(minConstructionYear, maxConstructionYear));
+            if (numberOfBedRooms != null) criteria = criteria.and(HouseQueries.byNumberOfBedRooms(numberOfBedRooms));
+            return criteria;
+        }
+
+        String fingerprint() {
+            return Integer.toHexString(Objects.hash(owner, builder, minConstructionYear, maxConstructionYear,
+                    numberOfBedRooms));
+        }
+    }
+}
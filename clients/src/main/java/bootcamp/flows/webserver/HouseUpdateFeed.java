@@ -0,0 +1,54 @@
+package bootcamp.flows.webserver;
+
+import bootcamp.contracts.House;
+import net.corda.core.messaging.DataFeed;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import rx.Observable;
+import rx.Subscription;
+import rx.subjects.PublishSubject;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+/**
+ * The webserver's single subscription to updates of houses, of either version, on the default node. Everything that
+ * reacts to house changes subscribes here rather than opening its own vault feed over RPC.
+ */
+@Component
+public class HouseUpdateFeed {
+    private final static Logger logger = LoggerFactory.getLogger(HouseUpdateFeed.class);
+
+    private final NodeRPCConnectionPool rpc;
+    private final PublishSubject<Vault.Update<House>> updates = PublishSubject.create();
+    private Subscription subscription;
+
+    public HouseUpdateFeed(NodeRPCConnectionPool rpc) {
+        this.rpc = rpc;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        // Only the updates are wanted, so keep the snapshot that comes with the feed to a single row.
+        DataFeed<Vault.Page<House>, Vault.Update<House>> feed = rpc.proxy().vaultTrackByWithPagingSpec(
+                House.class, new QueryCriteria.VaultQueryCriteria(), new PageSpecification(DEFAULT_PAGE_NUM, 1));
+        subscription = feed.getUpdates().subscribe(updates::onNext,
+                error -> logger.error("HouseState update feed from {} failed", rpc.getDefaultNode(), error));
+    }
+
+    public Observable<Vault.Update<House>> getUpdates() {
+        return updates;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (subscription != null) subscription.unsubscribe();
+        updates.onCompleted();
+    }
+}
@@ -0,0 +1,111 @@
+package bootcamp.flows.webserver;
+
+import bootcamp.contracts.House;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.node.services.Vault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import rx.Subscription;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes HouseState changes to every connected WebSocket client.
+ *
+ * Updates from the shared HouseUpdateFeed are collected for a short window and sent as one message per window:
+ * `{"produced": [houses...], "consumed": [stateRefs...]}`. A house produced and consumed within the same window is
+ * left out of both lists.
+ */
+@Component
+public class HouseUpdateSocketHandler extends TextWebSocketHandler {
+    private final static Logger logger = LoggerFactory.getLogger(HouseUpdateSocketHandler.class);
+
+    private static final long BATCH_WINDOW_MILLIS = 250;
+    private static final int MAX_BATCH_UPDATES = 500;
+    // Slow clients are disconnected rather than allowed to hold up everyone else.
+    private static final int SEND_TIME_LIMIT_MILLIS = 5_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 1024 * 1024;
+
+    private final HouseUpdateFeed feed;
+    private final ObjectMapper objectMapper;
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private Subscription subscription;
+
+    public HouseUpdateSocketHandler(HouseUpdateFeed feed, ObjectMapper objectMapper) {
+        this.feed = feed;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        subscription = feed.getUpdates()
+                .buffer(BATCH_WINDOW_MILLIS, TimeUnit.MILLISECONDS, MAX_BATCH_UPDATES)
+                .filter(batch -> !batch.isEmpty() && !sessions.isEmpty())
+                .subscribe(this::broadcast, error -> logger.error("HouseState update stream failed", error));
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(),
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MILLIS, SEND_BUFFER_LIMIT_BYTES));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+    }
+
+    private void broadcast(List<Vault.Update<House>> batch) {
+        TextMessage message;
+        try {
+            message = new TextMessage(objectMapper.writeValueAsString(coalesce(batch)));
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialise HouseState updates", e);
+            return;
+        }
+        for (WebSocketSession session : sessions.values()) {
+            try {
+                session.sendMessage(message);
+            } catch (IOException | RuntimeException e) {
+                logger.info("Dropping WebSocket session {}: {}", session.getId(), e.getMessage());
+                sessions.remove(session.getId());
+            }
+        }
+    }
+
+    static Map<String, Object> coalesce(List<Vault.Update<House>> batch) {
+        Map<String, HouseView> produced = new LinkedHashMap<>();
+        Set<String> consumed = new LinkedHashSet<>();
+        for (Vault.Update<House> update : batch) {
+            for (StateAndRef<House> state : update.getConsumed()) {
+                String ref = HouseView.stateRef(state.getRef());
+                if (produced.remove(ref) == null) consumed.add(ref);
+            }
+            for (StateAndRef<House> state : update.getProduced()) {
+                produced.put(HouseView.stateRef(state.getRef()), HouseView.of(state));
+            }
+        }
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("produced", new ArrayList<>(produced.values()));
+        message.put("consumed", consumed);
+        return message;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (subscription != null) subscription.unsubscribe();
+    }
+}
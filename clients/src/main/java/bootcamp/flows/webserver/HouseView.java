@@ -0,0 +1,82 @@
+package bootcamp.flows.webserver;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseState;
+import bootcamp.contracts.HouseStateV2;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+
+/**
+ * The JSON view of an unconsumed house of either version returned by the webserver.
+ */
+public class HouseView {
+    private final String stateRef;
+    private final String address;
+    private final String buildArea;
+    private final Integer numberOfBedRooms;
+    private final Integer constructionYear;
+    private final String builder;
+    private final String owner;
+    private final String notary;
+
+    private HouseView(StateAndRef<? extends House> stateAndRef) {
+        House house = stateAndRef.getState().getData();
+        this.stateRef = stateRef(stateAndRef.getRef());
+        this.address = house.getAddress();
+        // An upgraded house holds its area and unit apart; it is shown in the form a HouseState holds it.
+        if (house instanceof HouseStateV2) {
+            HouseStateV2 upgraded = (HouseStateV2) house;
+            this.buildArea = upgraded.getBuildArea() + upgraded.getAreaUnit().getSymbol();
+            this.numberOfBedRooms = upgraded.getNumberOfBedRooms();
+            this.constructionYear = upgraded.getConstructionYear();
+        } else {
+            HouseState legacy = (HouseState) house;
+            this.buildArea = legacy.getBuildArea();
+            this.numberOfBedRooms = legacy.getNumberOfBedRooms();
+            this.constructionYear = legacy.getConstructionYear();
+        }
+        this.builder = house.getBuilder().getName().toString();
+        this.owner = house.getOwner().getName().toString();
+        this.notary = stateAndRef.getState().getNotary().getName().toString();
+    }
+
+    public static HouseView of(StateAndRef<? extends House> stateAndRef) {
+        return new HouseView(stateAndRef);
+    }
+
+    public static String stateRef(StateRef ref) {
+        return ref.getTxhash() + ":" + ref.getIndex();
+    }
+
+    public String getStateRef() {
+        return stateRef;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getBuildArea() {
+        return buildArea;
+    }
+
+    public Integer getNumberOfBedRooms() {
+        return numberOfBedRooms;
+    }
+
+    public Integer getConstructionYear() {
+        return constructionYear;
+    }
+
+    public String getBuilder() {
+        return builder;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getNotary() {
+        return notary;
+    }
+}
@@ -0,0 +1,202 @@
+package bootcamp.flows.webserver;
+
+import net.corda.client.rpc.CordaRPCClient;
+import net.corda.client.rpc.CordaRPCConnection;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.utilities.NetworkHostAndPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Keeps several RPC connections open to each of a set of Corda nodes, and routes each call to a node by the X500
+ * name of its legal identity.
+ *
+ * The pool is configured using command line arguments. `config.rpc.nodes` lists the nodes' RPC addresses; when it is
+ * not set the pool connects to the single node at `config.rpc.host`:`config.rpc.port`. The first node listed is the
+ * default for calls that do not name a party.
+ */
+@Component
+public class NodeRPCConnectionPool implements AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(NodeRPCConnectionPool.class);
+
+    // The host of the default node, used when config.rpc.nodes is not set.
+    @Value("${config.rpc.host:localhost}")
+    private String host;
+    // The RPC port of the default node, used when config.rpc.nodes is not set.
+    @Value("${config.rpc.port:10006}")
+    private int rpcPort;
+    // A comma-separated list of host:port RPC addresses, one per node.
+    @Value("${config.rpc.nodes:}")
+    private String nodes;
+    // The username for logging into the RPC client.
+    @Value("${config.rpc.username}")
+    private String username;
+    // The password for logging into the RPC client.
+    @Value("${config.rpc.password}")
+    private String password;
+    // How many RPC connections to keep open to each node.
+    @Value("${config.rpc.connectionsPerNode:4}")
+    private int connectionsPerNode;
+
+    private final Map<CordaX500Name, NodeConnections> pools = new LinkedHashMap<>();
+    private CordaX500Name defaultNode;
+
+    @PostConstruct
+    public void initialiseConnectionPool() {
+        for (NetworkHostAndPort rpcAddress : rpcAddresses()) {
+            NodeConnections pool = new NodeConnections(rpcAddress);
+            pools.put(pool.name, pool);
+            if (defaultNode == null) defaultNode = pool.name;
+            logger.info("Opened {} RPC connections to {} at {}", connectionsPerNode, pool.name, rpcAddress);
+        }
+    }
+
+    private List<NetworkHostAndPort> rpcAddresses() {
+        List<NetworkHostAndPort> addresses = new ArrayList<>();
+        for (String address : nodes.split(",")) {
+            if (!address.trim().isEmpty()) addresses.add(NetworkHostAndPort.parse(address.trim()));
+        }
+        if (addresses.isEmpty()) addresses.add(new NetworkHostAndPort(host, rpcPort));
+        return addresses;
+    }
+
+    /**
+     * Runs an RPC call on the least busy connection to the given node.
+     */
+    public <T> T call(CordaX500Name party, Function<CordaRPCOps, T> call) {
+        return pool(party).call(call);
+    }
+
+    /**
+     * Runs an RPC call on the least busy connection to the default node.
+     */
+    public <T> T call(Function<CordaRPCOps, T> call) {
+        return call(defaultNode, call);
+    }
+
+    /**
+     * Returns a proxy to the given node for long-lived use, such as holding an observable open. Calls made through
+     * it are not counted in the pool statistics.
+     */
+    public CordaRPCOps proxy(CordaX500Name party) {
+        return pool(party).leastBusy().connection.getProxy();
+    }
+
+    public CordaRPCOps proxy() {
+        return proxy(defaultNode);
+    }
+
+    public Set<CordaX500Name> getNodes() {
+        return Collections.unmodifiableSet(pools.keySet());
+    }
+
+    public CordaX500Name getDefaultNode() {
+        return defaultNode;
+    }
+
+    /**
+     * Reports, per node, how many connections are open, how many calls are in flight and how saturated the pool is
+     * (in-flight calls per connection; anything above 1.0 means calls are sharing connections).
+     */
+    public List<Map<String, Object>> statistics() {
+        List<Map<String, Object>> statistics = new ArrayList<>();
+        for (NodeConnections pool : pools.values()) {
+            statistics.add(pool.statistics());
+        }
+        return statistics;
+    }
+
+    private NodeConnections pool(CordaX500Name party) {
+        NodeConnections pool = pools.get(party);
+        if (pool == null) throw new IllegalArgumentException("No RPC connection to " + party);
+        return pool;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (NodeConnections pool : pools.values()) {
+            pool.close();
+        }
+    }
+
+    // The connections to one node.
+    private class NodeConnections {
+        private final CordaX500Name name;
+        private final List<PooledConnection> connections = new ArrayList<>();
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+
+        NodeConnections(NetworkHostAndPort rpcAddress) {
+            CordaRPCClient rpcClient = new CordaRPCClient(rpcAddress);
+            for (int i = 0; i < Math.max(1, connectionsPerNode); i++) {
+                connections.add(new PooledConnection(rpcClient.start(username, password)));
+            }
+            name = connections.get(0).connection.getProxy().nodeInfo().getLegalIdentities().get(0).getName();
+        }
+
+        <T> T call(Function<CordaRPCOps, T> call) {
+            PooledConnection pooled = leastBusy();
+            pooled.inFlight.incrementAndGet();
+            calls.incrementAndGet();
+            peakInFlight.accumulateAndGet(totalInFlight(), Math::max);
+            try {
+                return call.apply(pooled.connection.getProxy());
+            } finally {
+                pooled.inFlight.decrementAndGet();
+            }
+        }
+
+        PooledConnection leastBusy() {
+            PooledConnection leastBusy = connections.get(0);
+            for (PooledConnection pooled : connections) {
+                if (pooled.inFlight.get() < leastBusy.inFlight.get()) leastBusy = pooled;
+            }
+            return leastBusy;
+        }
+
+        int totalInFlight() {
+            int inFlight = 0;
+            for (PooledConnection pooled : connections) {
+                inFlight += pooled.inFlight.get();
+            }
+            return inFlight;
+        }
+
+        Map<String, Object> statistics() {
+            int inFlight = totalInFlight();
+            Map<String, Object> statistics = new LinkedHashMap<>();
+            statistics.put("node", name.toString());
+            statistics.put("connections", connections.size());
+            statistics.put("inFlight", inFlight);
+            statistics.put("peakInFlight", peakInFlight.get());
+            statistics.put("calls", calls.get());
+            statistics.put("saturation", (double) inFlight / connections.size());
+            return statistics;
+        }
+
+        void close() {
+            for (PooledConnection pooled : connections) {
+                pooled.connection.notifyServerAndClose();
+            }
+        }
+    }
+
+    private static class PooledConnection {
+        private final CordaRPCConnection connection;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        PooledConnection(CordaRPCConnection connection) {
+            this.connection = connection;
+        }
+    }
+}
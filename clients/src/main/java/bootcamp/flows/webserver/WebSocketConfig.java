@@ -0,0 +1,36 @@
+package bootcamp.flows.webserver;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Serves the HouseState update stream on ws://host:port/ws/houses.
+ *
+ * Only pages served from the webserver's own origin may connect, unless `config.ws.allowedOrigins` lists others
+ * (comma-separated, e.g. `https://reports.example.com`).
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+    private final HouseUpdateSocketHandler houseUpdateSocketHandler;
+
+    @Value("${config.ws.allowedOrigins:}")
+    private String[] allowedOrigins;
+
+    public WebSocketConfig(HouseUpdateSocketHandler houseUpdateSocketHandler) {
+        this.houseUpdateSocketHandler = houseUpdateSocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        String[] origins = Arrays.stream(allowedOrigins).map(String::trim).filter(origin -> !origin.isEmpty())
+                .toArray(String[]::new);
+        // With no origins set, Spring accepts same-origin requests only.
+        registry.addHandler(houseUpdateSocketHandler, "/ws/houses").setAllowedOrigins(origins);
+    }
+}
@@ -0,0 +1,69 @@
+package bootcamp.contracts;
+
+import net.corda.core.serialization.CordaSerializable;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The unit a HouseStateV2's build area is measured in.
+ *
+ * HouseStateV2 stores the unit by its code rather than as an enum property, so codes must never be reused or changed.
+ */
+@CordaSerializable
+public enum AreaUnit {
+    SQUARE_FEET(1, "sqft"),
+    SQUARE_METRES(2, "sqm");
+
+    // The free-form areas HouseState accepted, such as "2000sqft", "2,000 sq ft" or "185 m2".
+    private static final Pattern LEGACY_AREA = Pattern.compile(
+            "\\s*([0-9][0-9,]*)\\s*(sq\\.?\\s*ft|sqft|ft2|sq\\.?\\s*m|sqm|m2)\\s*", Pattern.CASE_INSENSITIVE);
+
+    private final int code;
+    private final String symbol;
+
+    AreaUnit(int code, String symbol) {
+        this.code = code;
+        this.symbol = symbol;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static AreaUnit fromCode(int code) {
+        for (AreaUnit unit : values()) {
+            if (unit.code == code) return unit;
+        }
+        throw new IllegalArgumentException("Unknown Area Unit Code " + code);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * The numeric area in a HouseState build area string.
+     * @throws IllegalArgumentException if the string is not a whole number followed by a known unit
+     */
+    public static int parseArea(String buildArea) {
+        return Integer.parseInt(legacyArea(buildArea).group(1).replace(",", ""));
+    }
+
+    /**
+     * The unit in a HouseState build area string.
+     * @throws IllegalArgumentException if the string is not a whole number followed by a known unit
+     */
+    public static AreaUnit parseUnit(String buildArea) {
+        String unit = legacyArea(buildArea).group(2).toLowerCase(Locale.ROOT).replaceAll("[.\\s]", "");
+        return unit.endsWith("ft") || unit.equals("ft2") ? SQUARE_FEET : SQUARE_METRES;
+    }
+
+    private static Matcher legacyArea(String buildArea) {
+        Matcher matcher = buildArea == null ? null : LEGACY_AREA.matcher(buildArea);
+        if(matcher == null || !matcher.matches())
+            throw new IllegalArgumentException("Unrecognised Build Area " + buildArea);
+        return matcher;
+    }
+}
@@ -0,0 +1,31 @@
+package bootcamp.contracts;
+
+import net.corda.core.contracts.CommandData;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.identity.Party;
+
+/**
+ * What HouseState and HouseStateV2 have in common, so that the flows, the vault queries and the webserver handle
+ * either version of a house. Both versions map onto HouseSchemaV1, and the vault can be queried by this interface to
+ * return both.
+ *
+ * A transaction holds houses of one version only, as each version's contract expects a single command of its own.
+ */
+public interface House extends ContractState {
+
+    String getAddress();
+
+    Party getBuilder();
+
+    Party getOwner();
+
+    /**
+     * The same house, of the same version, under a new owner.
+     */
+    House withNewOwner(Party newOwner);
+
+    /**
+     * The Transfer command of the contract this version of the house belongs to.
+     */
+    CommandData transferCommand();
+}
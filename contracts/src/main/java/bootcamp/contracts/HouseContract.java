@@ -2,8 +2,14 @@ package bootcamp.contracts;
 
 import net.corda.core.contracts.CommandData;
 import net.corda.core.contracts.Contract;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.identity.Party;
 import net.corda.core.transactions.LedgerTransaction;
 
+import java.security.PublicKey;
+import java.util.List;
+import java.util.Objects;
+
 // ************
 // * HouseContract *
 // ************
@@ -25,16 +31,21 @@ public class HouseContract implements Contract {
         if(tx.getCommands().size() != 1)
             throw new IllegalArgumentException("One Command Expected");
 
-        if(tx.getOutputs().size()!=1)
-            throw new IllegalArgumentException("One Output Expected");
+        // Only an Exit leaves no house behind.
+        if(tx.getOutputs().isEmpty() && !(tx.getCommand(0).getValue() instanceof Commands.Exit))
+            throw new IllegalArgumentException("At Least One Output Expected");
 
-        if(!(tx.getOutput(0) instanceof HouseState))
+        if(tx.getOutputStates().stream().anyMatch(output -> !(output instanceof HouseState)))
             throw new IllegalArgumentException("Output of Type HouseState Expected");
 
         if(tx.getCommand(0).getValue() instanceof Commands.Issue){
             verifyIssue(tx);
         }else if(tx.getCommand(0).getValue() instanceof Commands.Transfer){
             verifyTransfer(tx);
+        }else if(tx.getCommand(0).getValue() instanceof Commands.Exit){
+            verifyExit(tx);
+        }else if(tx.getCommand(0).getValue() instanceof Commands.Reissue){
+            verifyReissue(tx);
         }else{
             throw new IllegalArgumentException("Unrecognized Command");
         }
@@ -48,7 +59,13 @@ public class HouseContract implements Contract {
         if(tx.getInputs().size()!=0)
             throw new IllegalArgumentException("Zero Inputs Excepted");
 
-        if(!(tx.getCommand(0).getSigners().contains(((HouseState)tx.getOutput(0)).getBuilder().getOwningKey())))
+        // A batch of houses may be issued together, but only by a single builder who signs for all of them.
+        List<HouseState> outputs = tx.outputsOfType(HouseState.class);
+        Party builder = outputs.get(0).getBuilder();
+        if(outputs.stream().anyMatch(output -> !builder.equals(output.getBuilder())))
+            throw new IllegalArgumentException("All Houses Must Have The Same Builder");
+
+        if(!(tx.getCommand(0).getSigners().contains(builder.getOwningKey())))
             throw new IllegalArgumentException("Buider must sign");
 
     }
@@ -58,30 +75,112 @@ public class HouseContract implements Contract {
          * TODO: Write Verification Logic for Transfer
          */
 
-        if(tx.getInputs().size()!=1)
-            throw new IllegalArgumentException("One Input Excepted");
+        if(tx.getInputs().isEmpty())
+            throw new IllegalArgumentException("At Least One Input Excepted");
+
+        if(tx.getInputStates().stream().anyMatch(input -> !(input instanceof HouseState)))
+            throw new IllegalArgumentException("Input of Type HouseState Expected");
+
+        // Several houses may change hands in one transaction. Each address must pair exactly one input with exactly
+        // one output, and every pair is checked on its own.
+        List<PublicKey> signers = tx.getCommand(0).getSigners();
+        for(LedgerTransaction.InOutGroup<HouseState, String> house :
+                tx.groupStates(HouseState.class, houseState -> HouseSchemaV1.normalizeAddress(houseState.getAddress()))){
+            if(house.getInputs().size()!=1)
+                throw new IllegalArgumentException("One Input Excepted");
+
+            if(house.getOutputs().size()!=1)
+                throw new IllegalArgumentException("One Output Expected");
+
+            HouseState input = house.getInputs().get(0);
+            HouseState output = house.getOutputs().get(0);
+
+            if(!(signers.contains(output.getOwner().getOwningKey()) && signers.contains(input.getOwner().getOwningKey())))
+                throw new IllegalArgumentException("Owner must sign");
+
+            if(!compare(input, output))
+                throw new IllegalArgumentException("Incorrect House Transferred");
+        }
+    }
+
+    private void verifyExit(LedgerTransaction tx){
+        if(tx.getInputs().isEmpty())
+            throw new IllegalArgumentException("At Least One Input Excepted");
+
+        if(!tx.getOutputs().isEmpty())
+            throw new IllegalArgumentException("Zero Outputs Expected");
 
-        if(!(tx.getInput(0) instanceof HouseState))
+        if(tx.getInputStates().stream().anyMatch(input -> !(input instanceof HouseState)))
             throw new IllegalArgumentException("Input of Type HouseState Expected");
 
-        if(!(tx.getCommand(0).getSigners().contains(((HouseState)tx.getOutput(0)).getOwner().getOwningKey()) &&
-                tx.getCommand(0).getSigners().contains(((HouseState)tx.getInput(0)).getOwner().getOwningKey())))
-            throw new IllegalArgumentException("Owner must sign");
+        // Taking a house off the ledger needs both the builder, who will re-issue it, and the owner.
+        List<PublicKey> signers = tx.getCommand(0).getSigners();
+        for(HouseState input : tx.inputsOfType(HouseState.class)){
+            if(!signers.contains(input.getBuilder().getOwningKey()))
+                throw new IllegalArgumentException("Builder must sign");
 
-        if(!compare((HouseState)tx.getInput(0), (HouseState)tx.getOutput(0)))
-            throw new IllegalArgumentException("Incorrect House Transferred");
+            if(!signers.contains(input.getOwner().getOwningKey()))
+                throw new IllegalArgumentException("Owner must sign");
+        }
+    }
+
+    private void verifyReissue(LedgerTransaction tx){
+        if(((Commands.Reissue) tx.getCommand(0).getValue()).getExitTxId() == null)
+            throw new IllegalArgumentException("The Exit Transaction Must Be Named");
+
+        // A re-issue is an issue with no history, so the issue rules apply...
+        verifyIssue(tx);
+
+        // ...and the owner must also agree to hold the fresh house in place of the one that was exited.
+        List<PublicKey> signers = tx.getCommand(0).getSigners();
+        for(HouseState output : tx.outputsOfType(HouseState.class)){
+            if(!signers.contains(output.getOwner().getOwningKey()))
+                throw new IllegalArgumentException("Owner must sign");
+        }
     }
 
     // Used to indicate the transaction's intent.
     public interface Commands extends CommandData {
         class Issue implements Commands {}
         class Transfer implements Commands {}
+
+        /**
+         * Removes houses from the ledger so that their builder can re-issue them without their history.
+         */
+        class Exit implements Commands {}
+
+        /**
+         * Issues fresh houses in place of the ones removed by the Exit transaction exitTxId. The contract cannot
+         * see that transaction, so the id is recorded for anyone auditing the house, and the flows check it.
+         */
+        class Reissue implements Commands {
+            private final SecureHash exitTxId;
+
+            public Reissue(SecureHash exitTxId) {
+                this.exitTxId = exitTxId;
+            }
+
+            public SecureHash getExitTxId() {
+                return exitTxId;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof Reissue && Objects.equals(exitTxId, ((Reissue) o).exitTxId);
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hashCode(exitTxId);
+            }
+        }
     }
 
     private boolean compare(HouseState input, HouseState output){
         if(input.getAddress().equals(output.getAddress()) && input.getBuildArea().equals(output.getBuildArea())
             && input.getNumberOfBedRooms().equals(output.getNumberOfBedRooms())
-                && input.getConstructionYear().equals(output.getConstructionYear()) ){
+                && input.getConstructionYear().equals(output.getConstructionYear())
+                && input.getBuilder().equals(output.getBuilder()) ){
             return true;
         }else{
             return false;
@@ -0,0 +1,152 @@
+package bootcamp.contracts;
+
+import net.corda.core.contracts.AlwaysAcceptAttachmentConstraint;
+import net.corda.core.contracts.AttachmentConstraint;
+import net.corda.core.contracts.CommandData;
+import net.corda.core.contracts.UpgradedContractWithLegacyConstraint;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.LedgerTransaction;
+
+import java.security.PublicKey;
+import java.util.List;
+
+// *******************
+// * HouseContractV2 *
+// *******************
+/**
+ * The contract for HouseStateV2, and the upgrade path from HouseContract: a HouseState is upgraded into the
+ * HouseStateV2 with the same fields, its build area string parsed into a number and an AreaUnit.
+ *
+ * Issue and Transfer follow the same rules as HouseContract. Exit and Reissue do too, and use HouseContract's own
+ * commands, so that the re-issue flows and anyone auditing a re-issue read the exit it names the same way for either
+ * version.
+ */
+public class HouseContractV2 implements UpgradedContractWithLegacyConstraint<HouseState, HouseStateV2> {
+    public static final String ID = "bootcamp.contracts.HouseContractV2";
+
+    @Override
+    public String getLegacyContract() {
+        return HouseContract.ID;
+    }
+
+    // Corda checks every input's own constraint against the legacy contract attachment during the upgrade, so no
+    // further constraint is needed here. Without one, the legacy contract would have to be whitelisted on the network.
+    @Override
+    public AttachmentConstraint getLegacyContractConstraint() {
+        return AlwaysAcceptAttachmentConstraint.INSTANCE;
+    }
+
+    @Override
+    public HouseStateV2 upgrade(HouseState state) {
+        return new HouseStateV2(state.getAddress(), AreaUnit.parseArea(state.getBuildArea()),
+                AreaUnit.parseUnit(state.getBuildArea()), state.getNumberOfBedRooms(), state.getConstructionYear(),
+                state.getBuilder(), state.getOwner());
+    }
+
+    @Override
+    public void verify(LedgerTransaction tx) {
+        if(tx.getCommands().size() != 1)
+            throw new IllegalArgumentException("One Command Expected");
+
+        // Only an Exit leaves no house behind.
+        if(tx.getOutputs().isEmpty() && !(tx.getCommand(0).getValue() instanceof HouseContract.Commands.Exit))
+            throw new IllegalArgumentException("At Least One Output Expected");
+
+        if(tx.getOutputStates().stream().anyMatch(output -> !(output instanceof HouseStateV2)))
+            throw new IllegalArgumentException("Output of Type HouseStateV2 Expected");
+
+        if(tx.outputsOfType(HouseStateV2.class).stream().anyMatch(output -> output.getBuildArea() <= 0))
+            throw new IllegalArgumentException("Build Area Must Be Positive");
+
+        if(tx.getCommand(0).getValue() instanceof Commands.Issue){
+            verifyIssue(tx);
+        }else if(tx.getCommand(0).getValue() instanceof Commands.Transfer){
+            verifyTransfer(tx);
+        }else if(tx.getCommand(0).getValue() instanceof HouseContract.Commands.Exit){
+            verifyExit(tx);
+        }else if(tx.getCommand(0).getValue() instanceof HouseContract.Commands.Reissue){
+            verifyReissue(tx);
+        }else{
+            throw new IllegalArgumentException("Unrecognized Command");
+        }
+    }
+
+    private void verifyIssue(LedgerTransaction tx){
+        if(tx.getInputs().size()!=0)
+            throw new IllegalArgumentException("Zero Inputs Excepted");
+
+        List<HouseStateV2> outputs = tx.outputsOfType(HouseStateV2.class);
+        Party builder = outputs.get(0).getBuilder();
+        if(outputs.stream().anyMatch(output -> !builder.equals(output.getBuilder())))
+            throw new IllegalArgumentException("All Houses Must Have The Same Builder");
+
+        if(!(tx.getCommand(0).getSigners().contains(builder.getOwningKey())))
+            throw new IllegalArgumentException("Buider must sign");
+    }
+
+    private void verifyTransfer(LedgerTransaction tx){
+        if(tx.getInputs().isEmpty())
+            throw new IllegalArgumentException("At Least One Input Excepted");
+
+        if(tx.getInputStates().stream().anyMatch(input -> !(input instanceof HouseStateV2)))
+            throw new IllegalArgumentException("Input of Type HouseStateV2 Expected");
+
+        List<PublicKey> signers = tx.getCommand(0).getSigners();
+        for(LedgerTransaction.InOutGroup<HouseStateV2, String> house :
+                tx.groupStates(HouseStateV2.class, houseState -> HouseSchemaV1.normalizeAddress(houseState.getAddress()))){
+            if(house.getInputs().size()!=1)
+                throw new IllegalArgumentException("One Input Excepted");
+
+            if(house.getOutputs().size()!=1)
+                throw new IllegalArgumentException("One Output Expected");
+
+            HouseStateV2 input = house.getInputs().get(0);
+            HouseStateV2 output = house.getOutputs().get(0);
+
+            if(!(signers.contains(output.getOwner().getOwningKey()) && signers.contains(input.getOwner().getOwningKey())))
+                throw new IllegalArgumentException("Owner must sign");
+
+            // Only the owner may change.
+            if(!input.withNewOwner(output.getOwner()).equals(output))
+                throw new IllegalArgumentException("Incorrect House Transferred");
+        }
+    }
+
+    private void verifyExit(LedgerTransaction tx){
+        if(tx.getInputs().isEmpty())
+            throw new IllegalArgumentException("At Least One Input Excepted");
+
+        if(!tx.getOutputs().isEmpty())
+            throw new IllegalArgumentException("Zero Outputs Expected");
+
+        if(tx.getInputStates().stream().anyMatch(input -> !(input instanceof HouseStateV2)))
+            throw new IllegalArgumentException("Input of Type HouseStateV2 Expected");
+
+        List<PublicKey> signers = tx.getCommand(0).getSigners();
+        for(HouseStateV2 input : tx.inputsOfType(HouseStateV2.class)){
+            if(!signers.contains(input.getBuilder().getOwningKey()))
+                throw new IllegalArgumentException("Builder must sign");
+
+            if(!signers.contains(input.getOwner().getOwningKey()))
+                throw new IllegalArgumentException("Owner must sign");
+        }
+    }
+
+    private void verifyReissue(LedgerTransaction tx){
+        if(((HouseContract.Commands.Reissue) tx.getCommand(0).getValue()).getExitTxId() == null)
+            throw new IllegalArgumentException("The Exit Transaction Must Be Named");
+
+        verifyIssue(tx);
+
+        List<PublicKey> signers = tx.getCommand(0).getSigners();
+        for(HouseStateV2 output : tx.outputsOfType(HouseStateV2.class)){
+            if(!signers.contains(output.getOwner().getOwningKey()))
+                throw new IllegalArgumentException("Owner must sign");
+        }
+    }
+
+    public interface Commands extends CommandData {
+        class Issue implements Commands {}
+        class Transfer implements Commands {}
+    }
+}
@@ -0,0 +1,7 @@
+package bootcamp.contracts;
+
+/**
+ * The family of schemas for HouseState.
+ */
+public class HouseSchema {
+}
@@ -0,0 +1,94 @@
+package bootcamp.contracts;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// ******************
+// * HouseSchemaV1 *
+// ******************
+/**
+ * A HouseState schema. Maps the house onto a custom vault table so that flows can look houses up by address with
+ * an indexed query instead of loading every state in the vault.
+ */
+public class HouseSchemaV1 extends MappedSchema {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public HouseSchemaV1() {
+        super(HouseSchema.class, 1, ImmutableList.of(PersistentHouse.class));
+    }
+
+    /**
+     * Normalises an address for lookups: trims it, collapses runs of whitespace and lower-cases it, so that
+     * "Powai  Mumbai" and "powai mumbai" resolve to the same house.
+     */
+    public static String normalizeAddress(String address) {
+        if (address == null) return null;
+        return WHITESPACE.matcher(address.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    @Entity
+    @Table(name = "house_states", indexes = {
+            @Index(name = "house_normalized_address_idx", columnList = "normalized_address")
+    })
+    public static class PersistentHouse extends PersistentState {
+        @Column(name = "address") private final String address;
+        @Column(name = "normalized_address") private final String normalizedAddress;
+        @Column(name = "owner") private final String owner;
+        @Column(name = "builder") private final String builder;
+        @Column(name = "number_of_bed_rooms") private final Integer numberOfBedRooms;
+        @Column(name = "construction_year") private final Integer constructionYear;
+
+        public PersistentHouse(String address, String owner, String builder, Integer numberOfBedRooms,
+                               Integer constructionYear) {
+            this.address = address;
+            this.normalizedAddress = normalizeAddress(address);
+            this.owner = owner;
+            this.builder = builder;
+            this.numberOfBedRooms = numberOfBedRooms;
+            this.constructionYear = constructionYear;
+        }
+
+        // Default constructor required by hibernate.
+        public PersistentHouse() {
+            this.address = null;
+            this.normalizedAddress = null;
+            this.owner = null;
+            this.builder = null;
+            this.numberOfBedRooms = null;
+            this.constructionYear = null;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public String getNormalizedAddress() {
+            return normalizedAddress;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public String getBuilder() {
+            return builder;
+        }
+
+        public Integer getNumberOfBedRooms() {
+            return numberOfBedRooms;
+        }
+
+        public Integer getConstructionYear() {
+            return constructionYear;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package bootcamp.contracts;
 
 import net.corda.core.contracts.BelongsToContract;
-import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.CommandData;
 import net.corda.core.identity.AbstractParty;
 import net.corda.core.identity.Party;
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+import net.corda.core.schemas.QueryableState;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 // *********
@@ -15,7 +19,7 @@ import java.util.List;
  * TODO 1: Implement ContractState
  */
 @BelongsToContract(HouseContract.class)
-public class HouseState implements ContractState {
+public class HouseState implements House, QueryableState {
 
     /**
      * TODO 2: List properties of House State
@@ -85,4 +89,34 @@ public class HouseState implements ContractState {
     public Party getOwner() {
         return owner;
     }
-}
\ No newline at end of file
+
+    @Override
+    public HouseState withNewOwner(Party newOwner) {
+        return new HouseState(address, buildArea, numberOfBedRooms, constructionYear, builder, newOwner);
+    }
+
+    @Override
+    public CommandData transferCommand() {
+        return new HouseContract.Commands.Transfer();
+    }
+
+    /**
+     * Maps the house onto HouseSchemaV1 so the vault can index it by address.
+     */
+    @Override
+    public PersistentState generateMappedObject(MappedSchema schema) {
+        if (schema instanceof HouseSchemaV1) {
+            return new HouseSchemaV1.PersistentHouse(address,
+                    owner == null ? null : owner.getName().toString(),
+                    builder == null ? null : builder.getName().toString(),
+                    numberOfBedRooms, constructionYear);
+        } else {
+            throw new IllegalArgumentException("Unrecognised schema " + schema);
+        }
+    }
+
+    @Override
+    public Iterable<MappedSchema> supportedSchemas() {
+        return Collections.singletonList(new HouseSchemaV1());
+    }
+}
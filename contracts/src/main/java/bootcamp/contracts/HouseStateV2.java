@@ -0,0 +1,149 @@
+package bootcamp.contracts;
+
+import net.corda.core.contracts.BelongsToContract;
+import net.corda.core.contracts.CommandData;
+import net.corda.core.identity.AbstractParty;
+import net.corda.core.identity.Party;
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+import net.corda.core.schemas.QueryableState;
+import net.corda.core.serialization.ConstructorForDeserialization;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+// ****************
+// * HouseStateV2 *
+// ****************
+/**
+ * The second version of HouseState. The build area is a number with an AreaUnit instead of a free-form string, the
+ * bedroom count and construction year are primitive ints, and two states with the same fields are equal.
+ *
+ * It maps onto the same HouseSchemaV1 table as HouseState, so the HouseQueries criteria find both versions, and
+ * a vault query by House returns both.
+ *
+ * On the wire the unit is carried as its AreaUnit code. Every serialised state carries the AMQP schema of the types
+ * it contains, and an enum property would add several hundred bytes of schema to each one, more than the numeric
+ * fields save.
+ */
+@BelongsToContract(HouseContractV2.class)
+public class HouseStateV2 implements House, QueryableState {
+
+    private final String address;
+    private final int buildArea;
+    private final AreaUnit areaUnit;
+    private final int numberOfBedRooms;
+    private final int constructionYear;
+
+    private final Party builder;
+    private final Party owner;
+
+    public HouseStateV2(String address, int buildArea, AreaUnit areaUnit, int numberOfBedRooms, int constructionYear,
+                        Party builder, Party owner) {
+        this.address = address;
+        this.buildArea = buildArea;
+        this.areaUnit = areaUnit;
+        this.numberOfBedRooms = numberOfBedRooms;
+        this.constructionYear = constructionYear;
+        this.builder = builder;
+        this.owner = owner;
+    }
+
+    @ConstructorForDeserialization
+    public HouseStateV2(String address, int buildArea, int areaUnitCode, int numberOfBedRooms, int constructionYear,
+                        Party builder, Party owner) {
+        this(address, buildArea, AreaUnit.fromCode(areaUnitCode), numberOfBedRooms, constructionYear, builder, owner);
+    }
+
+    @Override
+    public List<AbstractParty> getParticipants() {
+        return Arrays.asList(builder, owner);
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public int getBuildArea() {
+        return buildArea;
+    }
+
+    public AreaUnit getAreaUnit() {
+        return areaUnit;
+    }
+
+    public int getAreaUnitCode() {
+        return areaUnit.getCode();
+    }
+
+    public int getNumberOfBedRooms() {
+        return numberOfBedRooms;
+    }
+
+    public int getConstructionYear() {
+        return constructionYear;
+    }
+
+    public Party getBuilder() {
+        return builder;
+    }
+
+    public Party getOwner() {
+        return owner;
+    }
+
+    @Override
+    public HouseStateV2 withNewOwner(Party newOwner) {
+        return new HouseStateV2(address, buildArea, areaUnit, numberOfBedRooms, constructionYear, builder, newOwner);
+    }
+
+    @Override
+    public CommandData transferCommand() {
+        return new HouseContractV2.Commands.Transfer();
+    }
+
+    @Override
+    public PersistentState generateMappedObject(MappedSchema schema) {
+        if (schema instanceof HouseSchemaV1) {
+            return new HouseSchemaV1.PersistentHouse(address,
+                    owner == null ? null : owner.getName().toString(),
+                    builder == null ? null : builder.getName().toString(),
+                    numberOfBedRooms, constructionYear);
+        } else {
+            throw new IllegalArgumentException("Unrecognised schema " + schema);
+        }
+    }
+
+    @Override
+    public Iterable<MappedSchema> supportedSchemas() {
+        return Collections.singletonList(new HouseSchemaV1());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof HouseStateV2)) return false;
+        HouseStateV2 house = (HouseStateV2) other;
+        return buildArea == house.buildArea
+                && numberOfBedRooms == house.numberOfBedRooms
+                && constructionYear == house.constructionYear
+                && areaUnit == house.areaUnit
+                && Objects.equals(address, house.address)
+                && Objects.equals(builder, house.builder)
+                && Objects.equals(owner, house.owner);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(address, buildArea, areaUnit, numberOfBedRooms, constructionYear, builder, owner);
+    }
+
+    @Override
+    public String toString() {
+        return "HouseStateV2(address=" + address + ", buildArea=" + buildArea + areaUnit.getSymbol()
+                + ", numberOfBedRooms=" + numberOfBedRooms + ", constructionYear=" + constructionYear
+                + ", builder=" + builder + ", owner=" + owner + ")";
+    }
+}
@@ -1,6 +1,7 @@
 package bootcamp.contracts;
 
 import net.corda.core.contracts.Contract;
+import net.corda.core.crypto.SecureHash;
 import net.corda.core.identity.CordaX500Name;
 import net.corda.testing.contracts.DummyState;
 import net.corda.testing.core.TestIdentity;
@@ -75,11 +76,9 @@ public class ContractTests {
 
 
     @Test
-    public void houseIssueRequiresOneOutputInTheTransaction(){
+    public void houseIssueRequiresAtLeastOneOutputInTheTransaction(){
         transaction(ledgerServices, tx -> {
-            // Has two outputs, will fail.
-            tx.output(HouseContract.ID, houseState);
-            tx.output(HouseContract.ID, houseState);
+            // Has no outputs, will fail.
             tx.command(Arrays.asList(builder.getPublicKey()), new HouseContract.Commands.Issue());
             tx.fails();
             return null;
@@ -92,6 +91,29 @@ public class ContractTests {
             tx.verifies();
             return null;
         });
+
+        transaction(ledgerServices, tx -> {
+            // Has a batch of outputs, will verify.
+            tx.output(HouseContract.ID, houseState);
+            tx.output(HouseContract.ID, new HouseState("Andheri, Mumbai", "1200sqft", 2,
+                    2019, builder.getParty(), builder.getParty()));
+            tx.command(Arrays.asList(builder.getPublicKey()), new HouseContract.Commands.Issue());
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void houseIssueRequiresAllOutputsToHaveTheSameBuilder(){
+        transaction(ledgerServices, tx -> {
+            // Has houses from two builders, will fail.
+            tx.output(HouseContract.ID, houseState);
+            tx.output(HouseContract.ID, new HouseState("Andheri, Mumbai", "1200sqft", 2,
+                    2019, owner.getParty(), owner.getParty()));
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()), new HouseContract.Commands.Issue());
+            tx.fails();
+            return null;
+        });
     }
 
     @Test
@@ -261,6 +283,20 @@ public class ContractTests {
         });
     }
 
+    @Test
+    public void houseTransferRequiresTheBuilderToStayTheSame(){
+        transaction(ledgerServices, tx -> {
+            // Has the owner rewritten as the builder, will fail.
+            HouseState houseStateOutput = new HouseState("Powai, Mumbai", "2000sqft", 3,
+                    2019, owner.getParty(), owner.getParty());
+            tx.input(HouseContract.ID, houseState);
+            tx.output(HouseContract.ID, houseStateOutput);
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()), new HouseContract.Commands.Transfer());
+            tx.fails();
+            return null;
+        });
+    }
+
     @Test
     public void houseTransferRequiresCurrentOwnerAndNewOwnerAsRequiredSigner(){
         HouseState output = new HouseState("Powai, Mumbai", "2000sqft", 3,
@@ -283,4 +319,172 @@ public class ContractTests {
             return null;
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void houseTransferAllowsSeveralHousesInOneTransaction(){
+        TestIdentity otherOwner = new TestIdentity(new CordaX500Name("OtherOwner", "", "IN"));
+        HouseState secondHouse = new HouseState("Andheri, Mumbai", "1200sqft", 2,
+                2018, builder.getParty(), otherOwner.getParty());
+        HouseState firstOutput = new HouseState("Powai, Mumbai", "2000sqft", 3,
+                2019, builder.getParty(), owner.getParty());
+        HouseState secondOutput = new HouseState("Andheri, Mumbai", "1200sqft", 2,
+                2018, builder.getParty(), owner.getParty());
+
+        transaction(ledgerServices, tx -> {
+            // Each house pairs one input with one output, will verify.
+            tx.input(HouseContract.ID, houseState);
+            tx.input(HouseContract.ID, secondHouse);
+            tx.output(HouseContract.ID, secondOutput);
+            tx.output(HouseContract.ID, firstOutput);
+            tx.command(Arrays.asList(builder.getPublicKey(), otherOwner.getPublicKey(), owner.getPublicKey()),
+                    new HouseContract.Commands.Transfer());
+            tx.verifies();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Second house's current owner has not signed, will fail.
+            tx.input(HouseContract.ID, houseState);
+            tx.input(HouseContract.ID, secondHouse);
+            tx.output(HouseContract.ID, firstOutput);
+            tx.output(HouseContract.ID, secondOutput);
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()), new HouseContract.Commands.Transfer());
+            tx.fails();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Second house has no matching output, will fail.
+            tx.input(HouseContract.ID, houseState);
+            tx.input(HouseContract.ID, secondHouse);
+            tx.output(HouseContract.ID, firstOutput);
+            tx.command(Arrays.asList(builder.getPublicKey(), otherOwner.getPublicKey(), owner.getPublicKey()),
+                    new HouseContract.Commands.Transfer());
+            tx.fails();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Second house changes its build area on the way, will fail.
+            tx.input(HouseContract.ID, houseState);
+            tx.input(HouseContract.ID, secondHouse);
+            tx.output(HouseContract.ID, firstOutput);
+            tx.output(HouseContract.ID, new HouseState("Andheri, Mumbai", "1500sqft", 2,
+                    2018, builder.getParty(), owner.getParty()));
+            tx.command(Arrays.asList(builder.getPublicKey(), otherOwner.getPublicKey(), owner.getPublicKey()),
+                    new HouseContract.Commands.Transfer());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void houseTransferAllowsOwnersToSwapHouses(){
+        TestIdentity otherOwner = new TestIdentity(new CordaX500Name("OtherOwner", "", "IN"));
+        HouseState firstHouse = new HouseState("Powai, Mumbai", "2000sqft", 3,
+                2019, builder.getParty(), owner.getParty());
+        HouseState secondHouse = new HouseState("Andheri, Mumbai", "1200sqft", 2,
+                2018, builder.getParty(), otherOwner.getParty());
+        HouseState firstOutput = new HouseState("Powai, Mumbai", "2000sqft", 3,
+                2019, builder.getParty(), otherOwner.getParty());
+        HouseState secondOutput = new HouseState("Andheri, Mumbai", "1200sqft", 2,
+                2018, builder.getParty(), owner.getParty());
+
+        transaction(ledgerServices, tx -> {
+            // Each owner gives one house and receives the other, both sign, will verify.
+            tx.input(HouseContract.ID, firstHouse);
+            tx.input(HouseContract.ID, secondHouse);
+            tx.output(HouseContract.ID, firstOutput);
+            tx.output(HouseContract.ID, secondOutput);
+            tx.command(Arrays.asList(owner.getPublicKey(), otherOwner.getPublicKey()),
+                    new HouseContract.Commands.Transfer());
+            tx.verifies();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Only one of the outgoing owners signs, will fail.
+            tx.input(HouseContract.ID, firstHouse);
+            tx.input(HouseContract.ID, secondHouse);
+            tx.output(HouseContract.ID, firstOutput);
+            tx.output(HouseContract.ID, secondOutput);
+            tx.command(Arrays.asList(owner.getPublicKey()), new HouseContract.Commands.Transfer());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void houseExitRequiresNoOutputsAndBothBuilderAndOwnerAsSigners(){
+        HouseState ownedHouse = new HouseState("Powai, Mumbai", "2000sqft", 3,
+                2019, builder.getParty(), owner.getParty());
+
+        transaction(ledgerServices, tx -> {
+            // Builder and owner sign, will verify.
+            tx.input(HouseContract.ID, ownedHouse);
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()), new HouseContract.Commands.Exit());
+            tx.verifies();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Builder has not signed, will fail.
+            tx.input(HouseContract.ID, ownedHouse);
+            tx.command(Arrays.asList(owner.getPublicKey()), new HouseContract.Commands.Exit());
+            tx.fails();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Has an output, will fail.
+            tx.input(HouseContract.ID, ownedHouse);
+            tx.output(HouseContract.ID, ownedHouse);
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()), new HouseContract.Commands.Exit());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void houseReissueRequiresZeroInputsAndBothBuilderAndOwnerAsSigners(){
+        HouseState ownedHouse = new HouseState("Powai, Mumbai", "2000sqft", 3,
+                2019, builder.getParty(), owner.getParty());
+        SecureHash exitTxId = SecureHash.randomSHA256();
+
+        transaction(ledgerServices, tx -> {
+            // Builder and owner sign, will verify.
+            tx.output(HouseContract.ID, ownedHouse);
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()),
+                    new HouseContract.Commands.Reissue(exitTxId));
+            tx.verifies();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Owner has not signed, will fail.
+            tx.output(HouseContract.ID, ownedHouse);
+            tx.command(Arrays.asList(builder.getPublicKey()), new HouseContract.Commands.Reissue(exitTxId));
+            tx.fails();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Has an input, will fail.
+            tx.input(HouseContract.ID, ownedHouse);
+            tx.output(HouseContract.ID, ownedHouse);
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()),
+                    new HouseContract.Commands.Reissue(exitTxId));
+            tx.fails();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Names no exit transaction, will fail.
+            tx.output(HouseContract.ID, ownedHouse);
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()),
+                    new HouseContract.Commands.Reissue(null));
+            tx.fails();
+            return null;
+        });
+    }
+}
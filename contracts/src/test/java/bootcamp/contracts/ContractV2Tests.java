@@ -0,0 +1,149 @@
+package bootcamp.contracts;
+
+import net.corda.core.contracts.UpgradedContract;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.testing.core.TestIdentity;
+import net.corda.testing.node.MockServices;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static net.corda.testing.node.NodeTestUtils.transaction;
+import static org.junit.Assert.*;
+
+public class ContractV2Tests {
+    private final TestIdentity builder = new TestIdentity(new CordaX500Name("Builder", "", "IN"));
+    private final TestIdentity owner = new TestIdentity(new CordaX500Name("Owner", "", "IN"));
+    private MockServices ledgerServices = new MockServices(new TestIdentity(new CordaX500Name("TestId", "", "IN")));
+
+    private HouseStateV2 houseState = new HouseStateV2("Powai, Mumbai", 2000, AreaUnit.SQUARE_FEET, 3,
+            2019, builder.getParty(), builder.getParty());
+
+    @Test
+    public void houseContractV2UpgradesHouseContract() {
+        assertTrue(new HouseContractV2() instanceof UpgradedContract);
+        assertEquals(HouseContract.ID, new HouseContractV2().getLegacyContract());
+    }
+
+    @Test
+    public void upgradeParsesTheBuildAreaAndKeepsEveryOtherField() {
+        HouseState legacy = new HouseState("Powai, Mumbai", "2,000 sq ft", 3, 2019, builder.getParty(), owner.getParty());
+        assertEquals(new HouseStateV2("Powai, Mumbai", 2000, AreaUnit.SQUARE_FEET, 3, 2019, builder.getParty(),
+                owner.getParty()), new HouseContractV2().upgrade(legacy));
+    }
+
+    @Test
+    public void legacyBuildAreasAreParsedIntoAreaAndUnit() {
+        assertEquals(2000, AreaUnit.parseArea("2000sqft"));
+        assertEquals(AreaUnit.SQUARE_FEET, AreaUnit.parseUnit("2000sqft"));
+        assertEquals(185, AreaUnit.parseArea("185 m2"));
+        assertEquals(AreaUnit.SQUARE_METRES, AreaUnit.parseUnit("185 Sq. M"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void buildAreasWithoutAUnitAreRejected() {
+        AreaUnit.parseArea("large");
+    }
+
+    @Test
+    public void houseStateV2HasValueEquality() {
+        HouseStateV2 same = new HouseStateV2("Powai, Mumbai", 2000, AreaUnit.SQUARE_FEET, 3,
+                2019, builder.getParty(), builder.getParty());
+        assertEquals(houseState, same);
+        assertEquals(houseState.hashCode(), same.hashCode());
+        assertNotEquals(houseState, houseState.withNewOwner(owner.getParty()));
+    }
+
+    @Test
+    public void houseTransferV2MayOnlyChangeTheOwner(){
+        transaction(ledgerServices, tx -> {
+            // Changes the area, will fail.
+            tx.input(HouseContractV2.ID, houseState);
+            tx.output(HouseContractV2.ID, new HouseStateV2("Powai, Mumbai", 2500, AreaUnit.SQUARE_FEET, 3,
+                    2019, builder.getParty(), owner.getParty()));
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()), new HouseContractV2.Commands.Transfer());
+            tx.fails();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Changes only the owner, will verify.
+            tx.input(HouseContractV2.ID, houseState);
+            tx.output(HouseContractV2.ID, houseState.withNewOwner(owner.getParty()));
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()), new HouseContractV2.Commands.Transfer());
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void houseIssueV2RequiresAPositiveBuildArea(){
+        transaction(ledgerServices, tx -> {
+            tx.output(HouseContractV2.ID, new HouseStateV2("Powai, Mumbai", 0, AreaUnit.SQUARE_FEET, 3,
+                    2019, builder.getParty(), builder.getParty()));
+            tx.command(Arrays.asList(builder.getPublicKey()), new HouseContractV2.Commands.Issue());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void houseExitV2RequiresNoOutputsAndBothBuilderAndOwnerAsSigners(){
+        HouseStateV2 ownedHouse = houseState.withNewOwner(owner.getParty());
+
+        transaction(ledgerServices, tx -> {
+            // Builder and owner sign, will verify.
+            tx.input(HouseContractV2.ID, ownedHouse);
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()), new HouseContract.Commands.Exit());
+            tx.verifies();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Builder has not signed, will fail.
+            tx.input(HouseContractV2.ID, ownedHouse);
+            tx.command(Arrays.asList(owner.getPublicKey()), new HouseContract.Commands.Exit());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void houseReissueV2RequiresBothBuilderAndOwnerAsSigners(){
+        HouseStateV2 ownedHouse = houseState.withNewOwner(owner.getParty());
+        SecureHash exitTxId = SecureHash.randomSHA256();
+
+        transaction(ledgerServices, tx -> {
+            // Builder and owner sign, will verify.
+            tx.output(HouseContractV2.ID, ownedHouse);
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()),
+                    new HouseContract.Commands.Reissue(exitTxId));
+            tx.verifies();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Owner has not signed, will fail.
+            tx.output(HouseContractV2.ID, ownedHouse);
+            tx.command(Arrays.asList(builder.getPublicKey()), new HouseContract.Commands.Reissue(exitTxId));
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void housesOfBothVersionsCannotMoveInOneTransaction(){
+        HouseState legacy = new HouseState("Andheri, Mumbai", "1000sqft", 2, 2018, builder.getParty(),
+                builder.getParty());
+        transaction(ledgerServices, tx -> {
+            tx.input(HouseContractV2.ID, houseState);
+            tx.output(HouseContractV2.ID, houseState.withNewOwner(owner.getParty()));
+            tx.input(HouseContract.ID, legacy);
+            tx.output(HouseContract.ID, legacy.withNewOwner(owner.getParty()));
+            tx.command(Arrays.asList(builder.getPublicKey(), owner.getPublicKey()), new HouseContractV2.Commands.Transfer());
+            tx.fails();
+            return null;
+        });
+    }
+}
@@ -92,4 +92,18 @@ public class StateTests {
         assertEquals(owner, houseState.getOwner());
     }
 
+    @Test
+    public void houseStateMapsOntoTheHouseSchemaWithANormalizedAddress() {
+        HouseState houseState = new HouseState("  Powai,   Mumbai ", "2000sqft", 3,
+                2019, builder, owner);
+        HouseSchemaV1.PersistentHouse persistentHouse =
+                (HouseSchemaV1.PersistentHouse) houseState.generateMappedObject(new HouseSchemaV1());
+        assertEquals("  Powai,   Mumbai ", persistentHouse.getAddress());
+        assertEquals("powai, mumbai", persistentHouse.getNormalizedAddress());
+        assertEquals(owner.getName().toString(), persistentHouse.getOwner());
+        assertEquals(builder.getName().toString(), persistentHouse.getBuilder());
+        assertEquals(new Integer(3), persistentHouse.getNumberOfBedRooms());
+        assertEquals(new Integer(2019), persistentHouse.getConstructionYear());
+    }
+
 }
@@ -0,0 +1,67 @@
+package bootcamp.flows;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the latencies of one flow type during a load run and summarises them as throughput and percentiles.
+ */
+class FlowLatencyRecorder {
+    private final String flowName;
+    private final long[] latenciesNanos;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    FlowLatencyRecorder(String flowName, int expectedFlows) {
+        this.flowName = flowName;
+        this.latenciesNanos = new long[expectedFlows];
+    }
+
+    void start() {
+        startedAt = System.nanoTime();
+    }
+
+    void finish() {
+        finishedAt = System.nanoTime();
+    }
+
+    void record(long latencyNanos) {
+        int slot = recorded.getAndIncrement();
+        if (slot < latenciesNanos.length) latenciesNanos[slot] = latencyNanos;
+    }
+
+    void recordFailure() {
+        failed.incrementAndGet();
+    }
+
+    int completed() {
+        return Math.min(recorded.get(), latenciesNanos.length);
+    }
+
+    int failures() {
+        return failed.get();
+    }
+
+    String summary() {
+        int count = completed();
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        double seconds = (finishedAt - startedAt) / 1e9;
+        return String.format("%-24s flows=%d failed=%d throughput=%.1f flows/s p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                flowName, count, failures(), seconds > 0 ? count / seconds : 0.0,
+                millis(percentile(sorted, 50)), millis(percentile(sorted, 95)), millis(percentile(sorted, 99)),
+                millis(count == 0 ? 0 : sorted[count - 1]));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
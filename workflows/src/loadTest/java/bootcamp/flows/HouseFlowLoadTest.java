@@ -0,0 +1,153 @@
+package bootcamp.flows;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Drives HouseIssueFlow and HouseTransferInitiator against an in-process MockNetwork and reports flows per second
+ * and latency percentiles for each. Run it with `gradlew workflows:loadTest`; it is not part of the normal test run.
+ *
+ * The run is shaped by system properties (passed through from -P on the Gradle command line):
+ * load.parties, load.issues, load.transfers, load.concurrency, load.preload (houses issued per party before the
+ * measured run, to see how a larger vault affects throughput) and load.timeoutMinutes (how long each phase may take
+ * before the run fails).
+ */
+public class HouseFlowLoadTest {
+    // Transfers go from each party to the next, so at least two are needed.
+    private final int parties = Math.max(2, Integer.getInteger("load.parties", 3));
+    private final int issues = Integer.getInteger("load.issues", 200);
+    private final int transfers = Integer.getInteger("load.transfers", 200);
+    private final int concurrency = Integer.getInteger("load.concurrency", 8);
+    private final int preload = Integer.getInteger("load.preload", 0);
+    private final int timeoutMinutes = Integer.getInteger("load.timeoutMinutes", 10);
+
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )).withThreadPerNode(true).withNetworkSendManuallyPumped(false));
+    private final List<StartedMockNode> nodes = new ArrayList<>();
+
+    @Before
+    public void setup() throws Exception {
+        for (int i = 0; i < parties; i++) {
+            nodes.add(network.createNode());
+        }
+        for (int i = 0; i < parties; i++) {
+            preload(i);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void issueAndTransferThroughput() throws Exception {
+        System.out.println(String.format("House flow load run: parties=%d issues=%d transfers=%d concurrency=%d preload=%d",
+                parties, issues, transfers, concurrency, preload));
+
+        FlowLatencyRecorder issueRecorder = run("HouseIssueFlow", issues, i -> new Submission<>(
+                node(i), new HouseIssueFlow(address(i), "2000sqft", 3, 2019)));
+
+        int transferable = Math.min(transfers, issueRecorder.completed());
+        FlowLatencyRecorder transferRecorder = run("HouseTransferInitiator", transferable, i -> new Submission<>(
+                node(i), new HouseTransferFlow.HouseTransferInitiator(party(i + 1), address(i))));
+
+        System.out.println(issueRecorder.summary());
+        System.out.println(transferRecorder.summary());
+
+        assertEquals(0, issueRecorder.failures());
+        assertEquals(0, transferRecorder.failures());
+    }
+
+    // Runs count flows with at most `concurrency` in flight, recording each flow's latency from start to completion.
+    private FlowLatencyRecorder run(String flowName, int count, IntFunction<Submission<?>> submissions)
+            throws InterruptedException {
+        FlowLatencyRecorder recorder = new FlowLatencyRecorder(flowName, count);
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(count);
+
+        recorder.start();
+        for (int i = 0; i < count; i++) {
+            inFlight.acquire();
+            Submission<?> submission = submissions.apply(i);
+            long startedAt = System.nanoTime();
+            CordaFuture<?> future = submission.node.startFlow(submission.flow);
+            future.then(result -> {
+                try {
+                    result.get();
+                    recorder.record(System.nanoTime() - startedAt);
+                } catch (Exception e) {
+                    recorder.recordFailure();
+                } finally {
+                    inFlight.release();
+                    done.countDown();
+                }
+                return null;
+            });
+        }
+        if (!done.await(timeoutMinutes, TimeUnit.MINUTES)) {
+            fail(flowName + " run timed out after " + timeoutMinutes + " minutes with " + done.getCount() + " of "
+                    + count + " flows still outstanding");
+        }
+        recorder.finish();
+        return recorder;
+    }
+
+    private void preload(int nodeIndex) throws Exception {
+        int remaining = preload;
+        int batch = 0;
+        while (remaining > 0) {
+            int size = Math.min(remaining, HouseBatchIssueFlow.DEFAULT_BATCH_SIZE);
+            List<HouseSpec> houses = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                houses.add(new HouseSpec("Preload " + nodeIndex + "-" + batch + "-" + i, "1200sqft", 2, 2018));
+            }
+            nodes.get(nodeIndex).startFlow(new HouseBatchIssueFlow(houses)).get();
+            remaining -= size;
+            batch++;
+        }
+    }
+
+    private StartedMockNode node(int i) {
+        return nodes.get(i % parties);
+    }
+
+    private Party party(int i) {
+        return node(i).getInfo().getLegalIdentities().get(0);
+    }
+
+    private static String address(int i) {
+        return "Load House " + i;
+    }
+
+    private static class Submission<T> {
+        private final StartedMockNode node;
+        private final FlowLogic<T> flow;
+
+        Submission(StartedMockNode node, FlowLogic<T> flow) {
+            this.node = node;
+            this.flow = flow;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package bootcamp.flows;
+
+import kotlin.Unit;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects a histogram of durations for every step of the house flows, and publishes them over JMX so they can be
+ * read with JConsole, VisualVM or the node's Jolokia agent.
+ */
+@CordaService
+public class FlowStepMetrics extends SingletonSerializeAsToken implements FlowStepMetricsMXBean {
+    private final static Logger logger = LoggerFactory.getLogger(FlowStepMetrics.class);
+
+    private final Map<String, StepHistogram> histograms = new ConcurrentHashMap<>();
+
+    public FlowStepMetrics(AppServiceHub serviceHub) {
+        // Several mock nodes can share one JVM in tests, so the node's name is part of the MBean's name.
+        String node = serviceHub.getMyInfo().getLegalIdentities().get(0).getName().toString();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName("bootcamp.flows:type=FlowStepMetrics,node=" + ObjectName.quote(node));
+            server.registerMBean(this, name);
+            serviceHub.registerUnloadHandler(() -> {
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException e) {
+                    logger.warn("Could not unregister {}", name, e);
+                }
+                return Unit.INSTANCE;
+            });
+        } catch (JMException e) {
+            logger.warn("Flow step metrics for {} will not be available over JMX", node, e);
+        }
+    }
+
+    void record(String flow, String step, long nanos) {
+        histograms.computeIfAbsent(flow + '\u0000' + step, key -> new StepHistogram()).record(nanos);
+    }
+
+    @Override
+    public List<FlowStepTiming> getStepTimings() {
+        List<FlowStepTiming> timings = new ArrayList<>();
+        histograms.forEach((key, histogram) -> {
+            String[] flowAndStep = key.split("\u0000", 2);
+            timings.add(new FlowStepTiming(flowAndStep[0], flowAndStep[1], histogram.getCount(),
+                    histogram.getMeanMillis(), histogram.getPercentileMillis(50), histogram.getPercentileMillis(95),
+                    histogram.getPercentileMillis(99), histogram.getMaxMillis()));
+        });
+        timings.sort((left, right) -> (left.getFlow() + left.getStep()).compareTo(right.getFlow() + right.getStep()));
+        return timings;
+    }
+
+    @Override
+    public void reset() {
+        histograms.clear();
+    }
+}
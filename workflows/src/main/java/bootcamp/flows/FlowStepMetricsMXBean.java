@@ -0,0 +1,15 @@
+package bootcamp.flows;
+
+import java.util.List;
+
+/**
+ * The JMX view of FlowStepMetrics, registered as `bootcamp.flows:type=FlowStepMetrics,node=<legal name>`.
+ */
+public interface FlowStepMetricsMXBean {
+    /**
+     * Timings of every flow step recorded since the node started or the metrics were last reset.
+     */
+    List<FlowStepTiming> getStepTimings();
+
+    void reset();
+}
@@ -0,0 +1,67 @@
+package bootcamp.flows;
+
+import net.corda.core.node.ServiceHub;
+import net.corda.core.utilities.ProgressTracker;
+import org.slf4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Advances a flow's ProgressTracker and times how long the flow spends in each step.
+ *
+ * The timer is held by the flow, so it is checkpointed with it. When the flow finishes, the step timings are added
+ * to the node's FlowStepMetrics and written to the log as a one-line summary.
+ */
+class FlowStepTimer {
+    private final String flowName;
+    private final ProgressTracker progressTracker;
+    private final Map<String, Long> stepNanos = new LinkedHashMap<>();
+    private String currentStep;
+    private long stepStartedNanos;
+
+    FlowStepTimer(String flowName, ProgressTracker progressTracker) {
+        this.flowName = flowName;
+        this.progressTracker = progressTracker;
+    }
+
+    /**
+     * Ends the current step, if any, and starts the given one.
+     */
+    void step(ProgressTracker.Step step) {
+        long now = System.nanoTime();
+        endCurrentStep(now);
+        progressTracker.setCurrentStep(step);
+        currentStep = step.getLabel();
+        stepStartedNanos = now;
+    }
+
+    /**
+     * Ends the current step and reports the timings, whether or not the flow succeeded.
+     */
+    void finish(ServiceHub serviceHub, Logger logger, boolean succeeded) {
+        endCurrentStep(System.nanoTime());
+        FlowStepMetrics metrics = serviceHub.cordaService(FlowStepMetrics.class);
+        long totalNanos = 0;
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, Long> step : stepNanos.entrySet()) {
+            metrics.record(flowName, step.getKey(), step.getValue());
+            totalNanos += step.getValue();
+            summary.append(summary.length() == 0 ? "" : ", ")
+                    .append(step.getKey()).append(' ').append(millis(step.getValue())).append("ms");
+        }
+        logger.info("{} {} in {}ms: {}", flowName, succeeded ? "completed" : "failed", millis(totalNanos), summary);
+    }
+
+    private void endCurrentStep(long now) {
+        if (currentStep == null) return;
+        // nanoTime is meaningless across a node restart, so a step resumed from a checkpoint can come out negative.
+        stepNanos.merge(currentStep, Math.max(0, now - stepStartedNanos), Long::sum);
+        currentStep = null;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
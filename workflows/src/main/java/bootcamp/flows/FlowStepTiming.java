@@ -0,0 +1,62 @@
+package bootcamp.flows;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A snapshot of how long one step of one flow has taken, in milliseconds.
+ */
+public class FlowStepTiming {
+    private final String flow;
+    private final String step;
+    private final long count;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+
+    @ConstructorProperties({"flow", "step", "count", "meanMillis", "p50Millis", "p95Millis", "p99Millis", "maxMillis"})
+    public FlowStepTiming(String flow, String step, long count, double meanMillis, double p50Millis, double p95Millis,
+                          double p99Millis, double maxMillis) {
+        this.flow = flow;
+        this.step = step;
+        this.count = count;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p95Millis = p95Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+    }
+
+    public String getFlow() {
+        return flow;
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP95Millis() {
+        return p95Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+}
@@ -0,0 +1,44 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+
+import java.util.List;
+
+// **********************
+// * HouseAggregateFlow *
+// **********************
+/**
+ * Counts the houses, or sums their bedrooms, in our vault, grouped by any of owner, builder, construction year and
+ * number of bedrooms. The grouping is done by the database, so only one row per group is returned.
+ *
+ * For example, houses per builder by construction year:
+ *
+ *     flow start HouseAggregateFlow measure: HOUSES, groupBy: [BUILDER, CONSTRUCTION_YEAR]
+ */
+@StartableByRPC
+public class HouseAggregateFlow extends FlowLogic<List<HouseAggregateRow>> {
+
+    private final HouseAggregates.Measure measure;
+    private final List<HouseAggregates.Dimension> groupBy;
+
+    public HouseAggregateFlow(HouseAggregates.Measure measure, List<HouseAggregates.Dimension> groupBy) {
+        this.measure = measure;
+        this.groupBy = groupBy;
+    }
+
+    @Suspendable
+    @Override
+    public List<HouseAggregateRow> call() throws FlowException {
+        if(measure == null) throw new FlowException("A measure must be given");
+        try {
+            return HouseAggregates.query(measure, groupBy, (criteria, paging) ->
+                    getServiceHub().getVaultService().queryBy(House.class, criteria, paging));
+        } catch (IllegalArgumentException e) {
+            throw new FlowException(e.getMessage(), e);
+        }
+    }
+}
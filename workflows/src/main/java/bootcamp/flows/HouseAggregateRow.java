@@ -0,0 +1,56 @@
+package bootcamp.flows;
+
+import net.corda.core.serialization.CordaSerializable;
+
+/**
+ * One group of a house aggregate: the values of the dimensions it was grouped by, null for the others, and the
+ * group's count or sum.
+ */
+@CordaSerializable
+public class HouseAggregateRow {
+
+    private final String owner;
+    private final String builder;
+    private final Integer constructionYear;
+    private final Integer numberOfBedRooms;
+    private final long value;
+
+    public HouseAggregateRow(String owner, String builder, Integer constructionYear, Integer numberOfBedRooms,
+                             long value) {
+        this.owner = owner;
+        this.builder = builder;
+        this.constructionYear = constructionYear;
+        this.numberOfBedRooms = numberOfBedRooms;
+        this.value = value;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getBuilder() {
+        return builder;
+    }
+
+    public Integer getConstructionYear() {
+        return constructionYear;
+    }
+
+    public Integer getNumberOfBedRooms() {
+        return numberOfBedRooms;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        if (owner != null) text.append("owner=").append(owner).append(' ');
+        if (builder != null) text.append("builder=").append(builder).append(' ');
+        if (constructionYear != null) text.append("constructionYear=").append(constructionYear).append(' ');
+        if (numberOfBedRooms != null) text.append("numberOfBedRooms=").append(numberOfBedRooms).append(' ');
+        return text.append(value).toString();
+    }
+}
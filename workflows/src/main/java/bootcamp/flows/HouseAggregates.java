@@ -0,0 +1,128 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseSchemaV1.PersistentHouse;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.AggregateFunctionType;
+import net.corda.core.node.services.vault.Column;
+import net.corda.core.node.services.vault.ColumnPredicate;
+import net.corda.core.node.services.vault.CriteriaExpression;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+/**
+ * Aggregate vault queries over the HouseSchemaV1 columns, such as houses per owner or bedrooms per owner, that the
+ * database counts and sums so that only one row per group leaves the node.
+ *
+ * They cover the unconsumed houses in the queried node's vault, which for a builder includes every house it built.
+ * HouseStateV2 maps onto the same HouseSchemaV1 table, so upgraded houses are counted too when the vault is queried for
+ * House.
+ */
+public class HouseAggregates {
+
+    // Larger groupings are refused rather than paged, as a page of groups has no stable order to page by.
+    public static final int MAX_GROUPS = 10_000;
+
+    public enum Measure {
+        HOUSES(AggregateFunctionType.COUNT, "owner"),
+        BED_ROOMS(AggregateFunctionType.SUM, "numberOfBedRooms");
+
+        private final AggregateFunctionType function;
+        private final String column;
+
+        Measure(AggregateFunctionType function, String column) {
+            this.function = function;
+            this.column = column;
+        }
+    }
+
+    public enum Dimension {
+        OWNER("owner"),
+        BUILDER("builder"),
+        CONSTRUCTION_YEAR("constructionYear"),
+        NUMBER_OF_BED_ROOMS("numberOfBedRooms");
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+    }
+
+    private HouseAggregates(){}
+
+    /**
+     * The criteria for the measure grouped by the dimensions, largest first. The vault returns each group as
+     * consecutive entries of a page's otherResults: the measure, then one value per dimension.
+     */
+    public static QueryCriteria criteria(Measure measure, List<Dimension> groupBy) {
+        List<Column<PersistentHouse, Object>> groupByColumns = new ArrayList<>();
+        for(Dimension dimension : distinct(groupBy)) {
+            groupByColumns.add(new Column<>(HouseQueries.field(dimension.column)));
+        }
+        // Builder.count cannot group, so the expression is built directly.
+        CriteriaExpression<PersistentHouse, Boolean> aggregate = new CriteriaExpression.AggregateFunctionExpression<>(
+                new Column<PersistentHouse, Object>(HouseQueries.field(measure.column)),
+                new ColumnPredicate.AggregateFunction<>(measure.function),
+                groupByColumns, Sort.Direction.DESC);
+        return new QueryCriteria.VaultCustomQueryCriteria<>(aggregate);
+    }
+
+    /**
+     * Runs the aggregate through the given vault query, which may be the node's VaultService or an RPC proxy querying
+     * for House, and returns one row per group.
+     */
+    public static List<HouseAggregateRow> query(
+            Measure measure, List<Dimension> groupBy,
+            BiFunction<QueryCriteria, PageSpecification, Vault.Page<House>> vaultQuery) {
+        Vault.Page<House> page = vaultQuery.apply(criteria(measure, groupBy),
+                new PageSpecification(DEFAULT_PAGE_NUM, MAX_GROUPS + 1));
+        List<HouseAggregateRow> rows = rows(page.getOtherResults(), groupBy);
+        if(rows.size() > MAX_GROUPS)
+            throw new IllegalArgumentException("More Than " + MAX_GROUPS + " Groups; Group By Fewer Dimensions");
+        return rows;
+    }
+
+    /**
+     * Splits a page's otherResults into rows, given the dimensions the aggregate was grouped by.
+     */
+    public static List<HouseAggregateRow> rows(List<Object> otherResults, List<Dimension> groupBy) {
+        List<Dimension> dimensions = distinct(groupBy);
+        int width = dimensions.size() + 1;
+        if(otherResults.size() % width != 0)
+            throw new IllegalStateException("Expected " + width + " values per group, got " + otherResults.size()
+                    + " values");
+        List<HouseAggregateRow> rows = new ArrayList<>();
+        for(int from = 0; from < otherResults.size(); from += width) {
+            Number value = (Number) otherResults.get(from);
+            String owner = null;
+            String builder = null;
+            Integer constructionYear = null;
+            Integer numberOfBedRooms = null;
+            for(int i = 0; i < dimensions.size(); i++) {
+                Object key = otherResults.get(from + 1 + i);
+                switch (dimensions.get(i)) {
+                    case OWNER: owner = (String) key; break;
+                    case BUILDER: builder = (String) key; break;
+                    case CONSTRUCTION_YEAR: constructionYear = (Integer) key; break;
+                    case NUMBER_OF_BED_ROOMS: numberOfBedRooms = (Integer) key; break;
+                }
+            }
+            rows.add(new HouseAggregateRow(owner, builder, constructionYear, numberOfBedRooms,
+                    value == null ? 0 : value.longValue()));
+        }
+        return rows;
+    }
+
+    private static List<Dimension> distinct(List<Dimension> groupBy) {
+        return groupBy == null ? new ArrayList<>() : new ArrayList<>(new LinkedHashSet<>(groupBy));
+    }
+}
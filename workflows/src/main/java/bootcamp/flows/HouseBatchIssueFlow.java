@@ -0,0 +1,117 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.HouseContract;
+import bootcamp.contracts.HouseSchemaV1;
+import bootcamp.contracts.HouseState;
+import co.paralleluniverse.fibers.Suspendable;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.Command;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.ProgressTracker;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// ***********************
+// * HouseBatchIssueFlow *
+// ***********************
+/**
+ * Issues many houses at once. The houses are split into transactions of at most batchSize outputs each, so that a
+ * builder onboarding a whole development pays for one signature and one finality round per batch rather than per
+ * house.
+ */
+@InitiatingFlow
+@StartableByRPC
+public class HouseBatchIssueFlow extends FlowLogic<List<SignedTransaction>> {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    // Keeps each transaction comfortably below the network's maximum transaction size.
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final ProgressTracker progressTracker = new ProgressTracker();
+
+    private final List<HouseSpec> houses;
+    private final int batchSize;
+
+    public HouseBatchIssueFlow(List<HouseSpec> houses) {
+        this(houses, DEFAULT_BATCH_SIZE);
+    }
+
+    public HouseBatchIssueFlow(List<HouseSpec> houses, int batchSize) {
+        this.houses = houses;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ProgressTracker getProgressTracker() {
+        return progressTracker;
+    }
+
+    @Suspendable
+    @Override
+    public List<SignedTransaction> call() throws FlowException {
+        if(houses == null || houses.isEmpty())
+            throw new FlowException("At least one house must be issued");
+        if(batchSize < 1 || batchSize > MAX_BATCH_SIZE)
+            throw new FlowException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+
+        List<SignedTransaction> transactions = new ArrayList<>();
+        for(int from = 0; from < houses.size(); from += batchSize) {
+            List<HouseSpec> batch = new ArrayList<>(houses.subList(from, Math.min(from + batchSize, houses.size())));
+
+            Party notary = getNotaryForTransaction(batch);
+            TransactionBuilder transactionBuilder = getTransactionBuilder(notary, batch);
+            transactionBuilder.verify(getServiceHub());
+            SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
+
+            NotarySelector notarySelector = getServiceHub().cordaService(NotarySelector.class);
+            Instant started = getServiceHub().getClock().instant();
+            notarySelector.notarisationStarted(notary);
+            try {
+                transactions.add(subFlow(new FinalityFlow(signedTransaction, Collections.emptyList())));
+            } finally {
+                notarySelector.notarisationFinished(notary,
+                        Duration.between(started, getServiceHub().getClock().instant()));
+            }
+        }
+        return transactions;
+    }
+
+    public List<HouseState> getOutputStates(List<HouseSpec> batch){
+        List<HouseState> outputStates = new ArrayList<>(batch.size());
+        for(HouseSpec house : batch) {
+            outputStates.add(new HouseState(house.getAddress(), house.getBuildArea(), house.getNumberOfBedRooms(),
+                    house.getConstructionYear(), getOurIdentity(), getOurIdentity()));
+        }
+        return outputStates;
+    }
+
+    public Command<HouseContract.Commands.Issue> getCommand(){
+        return new Command<>(
+                new HouseContract.Commands.Issue(),
+                ImmutableList.of(getOurIdentity().getOwningKey())
+        );
+    }
+
+    // Each batch is notarised as a whole, so the selector is keyed on the batch's first address.
+    public Party getNotaryForTransaction(List<HouseSpec> batch){
+        return getServiceHub().cordaService(NotarySelector.class).select(
+                getServiceHub().getNetworkMapCache().getNotaryIdentities(),
+                HouseSchemaV1.normalizeAddress(batch.get(0).getAddress()));
+    }
+
+    public TransactionBuilder getTransactionBuilder(Party notary, List<HouseSpec> batch){
+        TransactionBuilder transactionBuilder = new TransactionBuilder(notary)
+                .addCommand(getCommand());
+        for(HouseState outputState : getOutputStates(batch)) {
+            transactionBuilder.addOutputState(outputState);
+        }
+        return transactionBuilder;
+    }
+}
@@ -0,0 +1,198 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseSchemaV1;
+import co.paralleluniverse.fibers.Suspendable;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.CommandData;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.ProgressTracker;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+// *************************
+// * HouseBulkTransferFlow *
+// *************************
+/**
+ * Moves a set of houses to one new owner in a single transaction, so a portfolio sale costs one signature round and
+ * one notarisation instead of one per house.
+ */
+public class HouseBulkTransferFlow {
+
+    // The largest portfolio that can be moved in one transaction.
+    public static final int MAX_HOUSES = 500;
+
+    private HouseBulkTransferFlow(){}
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class HouseBulkTransferInitiator extends FlowLogic<SignedTransaction>{
+        private final ProgressTracker progressTracker = new ProgressTracker();
+
+        private final Party newOwner;
+        private final List<String> addresses;
+
+        public HouseBulkTransferInitiator(Party newOwner, List<String> addresses) {
+            this.newOwner = newOwner;
+            this.addresses = addresses;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            List<StateAndRef<House>> inputStates = getInputStates();
+
+            TransactionBuilder transactionBuilder = getTransactionBuilder(inputStates);
+            transactionBuilder.verify(getServiceHub());
+            SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
+
+            // The new owner signs; builders other than ourselves and the new owner only receive the transaction.
+            FlowSession newOwnerSession = initiateFlow(newOwner);
+            newOwnerSession.send(true);
+
+            List<FlowSession> flowSessions = new ArrayList<>();
+            flowSessions.add(newOwnerSession);
+            for(Party builder : getObservers(inputStates)) {
+                FlowSession builderSession = initiateFlow(builder);
+                builderSession.send(false);
+                flowSessions.add(builderSession);
+            }
+
+            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction,
+                    ImmutableList.of(newOwnerSession)));
+
+            return subFlow(new FinalityFlow(fullySignedTransaction, flowSessions));
+        }
+
+        /**
+         * Fetches every house to be transferred with one vault query, and checks that we own all of them.
+         * @return StateAndRefs
+         * @throws FlowException
+         */
+        public List<StateAndRef<House>> getInputStates() throws FlowException{
+            if(addresses == null || addresses.isEmpty())
+                throw new FlowException("At least one house must be transferred");
+
+            Set<String> requested = addresses.stream().map(HouseSchemaV1::normalizeAddress)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            if(requested.size() != addresses.size())
+                throw new FlowException("Each house may only be transferred once");
+            if(requested.size() > MAX_HOUSES)
+                throw new FlowException("At most " + MAX_HOUSES + " houses may be transferred together");
+
+            List<StateAndRef<House>> inputStates = getServiceHub().getVaultService().queryBy(House.class,
+                    HouseQueries.byAddresses(requested), new PageSpecification(DEFAULT_PAGE_NUM, MAX_HOUSES))
+                    .getStates();
+
+            Set<String> found = inputStates.stream()
+                    .map(stateAndRef -> HouseSchemaV1.normalizeAddress(stateAndRef.getState().getData().getAddress()))
+                    .collect(Collectors.toSet());
+            requested.removeAll(found);
+            if(!requested.isEmpty())
+                throw new FlowException("Houses Not Found: " + requested);
+
+            for(StateAndRef<House> inputState : inputStates) {
+                if(!inputState.getState().getData().getOwner().equals(getOurIdentity()))
+                    throw new FlowException("House " + inputState.getState().getData().getAddress() + " is not ours");
+            }
+            return inputStates;
+        }
+
+        /**
+         * All houses in one transaction must share a notary.
+         * @return Party
+         * @throws FlowException
+         */
+        public Party getNotaryFromInputStates(List<StateAndRef<House>> inputStates) throws FlowException{
+            Set<Party> notaries = inputStates.stream().map(stateAndRef -> stateAndRef.getState().getNotary())
+                    .collect(Collectors.toSet());
+            if(notaries.size() != 1)
+                throw new FlowException("Houses transferred together must share a notary, found " + notaries);
+            return notaries.iterator().next();
+        }
+
+        /**
+         * Each version of a house is moved under its own contract, so houses transferred together must all be of one
+         * version: all HouseStates or all upgraded HouseStateV2s.
+         * @return Command
+         * @throws FlowException
+         */
+        public Command<CommandData> getCommand(List<StateAndRef<House>> inputStates) throws FlowException{
+            Set<Class<?>> versions = inputStates.stream().map(stateAndRef -> stateAndRef.getState().getData().getClass())
+                    .collect(Collectors.toSet());
+            if(versions.size() != 1)
+                throw new FlowException("Houses of different versions cannot be transferred together");
+            return new Command<>(
+                    inputStates.get(0).getState().getData().transferCommand(),
+                    ImmutableList.of(getOurIdentity().getOwningKey(), newOwner.getOwningKey())
+            );
+        }
+
+        public TransactionBuilder getTransactionBuilder(List<StateAndRef<House>> inputStates) throws FlowException{
+            TransactionBuilder transactionBuilder = new TransactionBuilder(getNotaryFromInputStates(inputStates))
+                    .addCommand(getCommand(inputStates));
+            for(StateAndRef<House> inputState : inputStates) {
+                transactionBuilder.addInputState(inputState);
+                transactionBuilder.addOutputState(inputState.getState().getData().withNewOwner(newOwner));
+            }
+            return transactionBuilder;
+        }
+
+        private Set<Party> getObservers(List<StateAndRef<House>> inputStates) {
+            Set<Party> observers = inputStates.stream().map(stateAndRef -> stateAndRef.getState().getData().getBuilder())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            observers.remove(getOurIdentity());
+            observers.remove(newOwner);
+            return observers;
+        }
+    }
+
+    @InitiatedBy(HouseBulkTransferInitiator.class)
+    public static class HouseBulkTransferResponder extends FlowLogic<SignedTransaction>{
+        private final FlowSession otherSide;
+
+        public HouseBulkTransferResponder(FlowSession otherSide) {
+            this.otherSide = otherSide;
+        }
+
+        @Override
+        @Suspendable
+        public SignedTransaction call() throws FlowException {
+            boolean signer = otherSide.receive(Boolean.class).unwrap(it -> it);
+            if(!signer)
+                return subFlow(new ReceiveFinalityFlow(otherSide));
+
+            SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(otherSide) {
+
+                @Suspendable
+                @Override
+                protected void checkTransaction(SignedTransaction stx) throws FlowException {
+                    for(ContractState output : stx.getTx().getOutputStates()) {
+                        if(!(output instanceof House) || !((House) output).getOwner().equals(getOurIdentity()))
+                            throw new FlowException("Every house in a bulk transfer must be transferred to us");
+                    }
+                }
+            });
+
+            return subFlow(new ReceiveFinalityFlow(otherSide, signedTransaction.getId()));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.HouseSchemaV1;
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.core.identity.Party;
+import net.corda.core.serialization.CordaSerializable;
+import net.corda.core.utilities.ProgressTracker;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// ***************************
+// * HouseFanOutTransferFlow *
+// ***************************
+/**
+ * Transfers many houses we own to their new owners in separate, concurrent transactions, and reports how each went.
+ *
+ * Unlike HouseBulkTransferFlow, which moves every house in one transaction that all the new owners must sign, each
+ * order here is its own HouseTransferInitiator, so one buyer being slow or refusing only fails that order. The
+ * transfers are run by the TransferFanOutService, at most `parallelism` at a time, and this flow sleeps until they
+ * have all finished.
+ */
+@StartableByRPC
+public class HouseFanOutTransferFlow extends FlowLogic<HouseFanOutTransferFlow.Report> {
+
+    public static final int MAX_ORDERS = 1000;
+    private static final Duration FIRST_POLL = Duration.ofMillis(100);
+    private static final Duration MAX_POLL = Duration.ofSeconds(2);
+
+    private static final ProgressTracker.Step STARTING = new ProgressTracker.Step("Starting the transfers");
+    private static final ProgressTracker.Step WAITING = new ProgressTracker.Step("Waiting for the transfers to finish");
+
+    private final ProgressTracker progressTracker = new ProgressTracker(STARTING, WAITING);
+
+    private final List<HouseTransferOrder> orders;
+    // Zero to use the node's configured default.
+    private final int parallelism;
+
+    public HouseFanOutTransferFlow(List<HouseTransferOrder> orders) {
+        this(orders, 0);
+    }
+
+    public HouseFanOutTransferFlow(List<HouseTransferOrder> orders, int parallelism) {
+        this.orders = orders;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public ProgressTracker getProgressTracker() {
+        return progressTracker;
+    }
+
+    @Suspendable
+    @Override
+    public Report call() throws FlowException {
+        if(orders == null || orders.isEmpty() || orders.size() > MAX_ORDERS)
+            throw new FlowException("Between 1 and " + MAX_ORDERS + " transfers must be ordered");
+        // Two orders for one house would only race each other for it, however its address is spelled.
+        Set<String> addresses = new HashSet<>();
+        for(HouseTransferOrder order : orders) {
+            if(order.getAddress() == null || order.getNewOwner() == null)
+                throw new FlowException("Every order needs an address and a new owner");
+            if(!addresses.add(HouseSchemaV1.normalizeAddress(order.getAddress())))
+                throw new FlowException("House " + order.getAddress() + " is ordered more than once");
+        }
+
+        progressTracker.setCurrentStep(STARTING);
+        TransferFanOutService fanOut = getServiceHub().cordaService(TransferFanOutService.class);
+        int cap = parallelism == 0 ? fanOut.getDefaultParallelism() : parallelism;
+        if(cap < 1 || cap > TransferFanOutService.MAX_PARALLELISM)
+            throw new FlowException("Parallelism must be between 1 and " + TransferFanOutService.MAX_PARALLELISM);
+        // The node's clock, as System.nanoTime() would not survive the checkpoint taken while sleeping.
+        Instant started = getServiceHub().getClock().instant();
+        UUID batchId = fanOut.submit(orders, cap);
+
+        progressTracker.setCurrentStep(WAITING);
+        Duration poll = FIRST_POLL;
+        while (true) {
+            List<Outcome> outcomes;
+            try {
+                outcomes = fanOut.collect(batchId);
+            } catch (IllegalArgumentException e) {
+                // The node restarted since the batch was submitted.
+                throw new FlowException("The transfer batch was lost; check the vault for which houses moved", e);
+            }
+            if(outcomes != null)
+                return new Report(outcomes, Duration.between(started, getServiceHub().getClock().instant()).toMillis());
+            sleep(poll);
+            Duration doubled = poll.multipliedBy(2);
+            poll = doubled.compareTo(MAX_POLL) > 0 ? MAX_POLL : doubled;
+        }
+    }
+
+    /**
+     * The result of one order: the transfer's transaction id if it went through, or why it did not.
+     */
+    @CordaSerializable
+    public static class Outcome {
+        private final String address;
+        private final Party newOwner;
+        private final SecureHash txId;
+        private final String error;
+
+        public Outcome(String address, Party newOwner, SecureHash txId, String error) {
+            this.address = address;
+            this.newOwner = newOwner;
+            this.txId = txId;
+            this.error = error;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public Party getNewOwner() {
+            return newOwner;
+        }
+
+        public SecureHash getTxId() {
+            return txId;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSucceeded() {
+            return txId != null;
+        }
+
+        @Override
+        public String toString() {
+            return address + " -> " + newOwner + ": " + (isSucceeded() ? txId : "failed, " + error);
+        }
+    }
+
+    /**
+     * The outcome of every order, in the order they were given, and how long the whole batch took.
+     */
+    @CordaSerializable
+    public static class Report {
+        private final List<Outcome> outcomes;
+        private final long elapsedMillis;
+
+        public Report(List<Outcome> outcomes, long elapsedMillis) {
+            this.outcomes = outcomes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<Outcome> getOutcomes() {
+            return outcomes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public int getSucceeded() {
+            return (int) outcomes.stream().filter(Outcome::isSucceeded).count();
+        }
+
+        @Override
+        public String toString() {
+            return "Transferred " + getSucceeded() + " of " + outcomes.size() + " houses in " + elapsedMillis + "ms";
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseSchemaV1;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.identity.Party;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+/**
+ * An in-memory index of the node's unconsumed houses of either version, keyed by owner and normalized address, so that
+ * flows can find their inputs without a vault query.
+ *
+ * The index follows the vault's committed updates from the moment the service starts, so a transaction that is
+ * rolled back never reaches it. They arrive just after the commit, so for a moment the index may still offer a house
+ * that has been spent; callers soft lock what they find, which fails for a spent state. It is filled from the vault,
+ * a page at a time, on the first lookup rather than at construction, because services are created before the node's
+ * database is available to them. A lookup that misses returns null, and the caller falls back to the vault.
+ */
+@CordaService
+public class HouseIndexService extends SingletonSerializeAsToken {
+    private final static Logger logger = LoggerFactory.getLogger(HouseIndexService.class);
+
+    static final int LOAD_PAGE_SIZE = 1000;
+
+    private final AppServiceHub serviceHub;
+    private final Map<String, StateAndRef<House>> houses = new ConcurrentHashMap<>();
+    // States consumed before the index was filled, which the fill must not put back.
+    private final Set<StateRef> consumedBeforeLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public HouseIndexService(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        serviceHub.getVaultService().getUpdates().subscribe(this::apply);
+    }
+
+    /**
+     * The unconsumed house at the given address owned by the given party, or null if the index has none.
+     */
+    public StateAndRef<House> find(String address, Party owner) {
+        if (!loaded) load();
+        StateAndRef<House> house = houses.get(key(owner, address));
+        (house == null ? misses : hits).incrementAndGet();
+        return house;
+    }
+
+    /**
+     * Drops the given owner's house at the given address if the index still has it under the given ref, for a caller
+     * that has found that state to be spent, such as by a notary conflict, before the index heard of it.
+     */
+    public void forget(String address, Party owner, StateRef ref) {
+        houses.computeIfPresent(key(owner, address), (key, indexed) -> indexed.getRef().equals(ref) ? null : indexed);
+    }
+
+    public int size() {
+        return houses.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private synchronized void load() {
+        if (loaded) return;
+        int count = 0;
+        for (int page = DEFAULT_PAGE_NUM; ; page++) {
+            Vault.Page<House> results = serviceHub.getVaultService().queryBy(House.class,
+                    new QueryCriteria.VaultQueryCriteria(), new PageSpecification(page, LOAD_PAGE_SIZE));
+            for (StateAndRef<House> house : results.getStates()) {
+                if (consumedBeforeLoad.contains(house.getRef())) continue;
+                // An update seen since the service started is newer than the vault page.
+                houses.putIfAbsent(key(house.getState().getData()), house);
+                count++;
+            }
+            if ((long) page * LOAD_PAGE_SIZE >= results.getTotalStatesAvailable()) break;
+        }
+        loaded = true;
+        consumedBeforeLoad.clear();
+        logger.info("Indexed {} houses", count);
+    }
+
+    // An exception would end the subscription, so it is logged instead.
+    private void apply(Vault.Update<?> update) {
+        try {
+            for (StateAndRef<?> consumed : update.getConsumed()) {
+                if (!(consumed.getState().getData() instanceof House)) continue;
+                if (!loaded) consumedBeforeLoad.add(consumed.getRef());
+                // By ref: the consumed StateAndRef is a different instance from the one indexed, and HouseState has no
+                // value equality.
+                houses.computeIfPresent(key((House) consumed.getState().getData()),
+                        (key, indexed) -> indexed.getRef().equals(consumed.getRef()) ? null : indexed);
+            }
+            for (StateAndRef<?> produced : update.getProduced()) {
+                if (!(produced.getState().getData() instanceof House)) continue;
+                @SuppressWarnings("unchecked")
+                StateAndRef<House> house = (StateAndRef<House>) produced;
+                houses.put(key(house.getState().getData()), house);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not apply a vault update to the house index", e);
+        }
+    }
+
+    private static String key(House house) {
+        return key(house.getOwner(), house.getAddress());
+    }
+
+    private static String key(Party owner, String address) {
+        return owner.getName() + "|" + HouseSchemaV1.normalizeAddress(address);
+    }
+}
@@ -1,6 +1,7 @@
 package bootcamp.flows;
 
 import bootcamp.contracts.HouseContract;
+import bootcamp.contracts.HouseSchemaV1;
 import bootcamp.contracts.HouseState;
 import co.paralleluniverse.fibers.Suspendable;
 import com.google.common.collect.ImmutableList;
@@ -12,6 +13,8 @@ import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
 import net.corda.core.utilities.ProgressTracker;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 
 // ******************
@@ -21,12 +24,24 @@ import java.util.Collections;
 @StartableByRPC
 public class HouseIssueFlow extends FlowLogic<SignedTransaction> {
 
-    private final ProgressTracker progressTracker = new ProgressTracker();
+    private static final ProgressTracker.Step BUILDING = new ProgressTracker.Step("Building the transaction");
+    private static final ProgressTracker.Step VERIFYING = new ProgressTracker.Step("Verifying the transaction");
+    private static final ProgressTracker.Step SIGNING = new ProgressTracker.Step("Signing the transaction");
+    private static final ProgressTracker.Step FINALISING = new ProgressTracker.Step("Notarising and recording") {
+        @Override
+        public ProgressTracker childProgressTracker() {
+            return FinalityFlow.Companion.tracker();
+        }
+    };
+
+    private final ProgressTracker progressTracker = new ProgressTracker(BUILDING, VERIFYING, SIGNING, FINALISING);
+    private final FlowStepTimer stepTimer = new FlowStepTimer("HouseIssueFlow", progressTracker);
 
     private final String address;
     private final String buildArea;
     private final Integer numberOfBedRooms;
     private final Integer constructionYear;
+    private Party notary;
 
     public HouseIssueFlow(String address, String buildArea, Integer numberOfBedRooms, Integer constructionYear) {
         this.address = address;
@@ -43,18 +58,46 @@ public class HouseIssueFlow extends FlowLogic<SignedTransaction> {
     @Suspendable
     @Override
     public SignedTransaction call() throws FlowException {
+        boolean succeeded = false;
+        try {
+            SignedTransaction signedTransaction = buildAndSign();
+
+            //Step 6: Commit the transaction to the ledger
+            stepTimer.step(FINALISING);
+            SignedTransaction finalisedTransaction = finalise(signedTransaction);
+            succeeded = true;
+            return finalisedTransaction;
+        } finally {
+            stepTimer.finish(getServiceHub(), getLogger(), succeeded);
+        }
+    }
 
+    // Kept out of call() so that the TransactionBuilder is not a local of any frame that suspends, and so is never
+    // written into the flow's checkpoint.
+    private SignedTransaction buildAndSign() throws FlowException {
         //Step3 : Build the transaction
+        stepTimer.step(BUILDING);
         TransactionBuilder transactionBuilder = getTransactionBuilder();
 
         //Step 4: Verify Transaction against contract
+        stepTimer.step(VERIFYING);
         transactionBuilder.verify(getServiceHub());
 
         //Step 5: Sign the transaction.
-        SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
+        stepTimer.step(SIGNING);
+        return getServiceHub().signInitialTransaction(transactionBuilder);
+    }
 
-        //Step 6: Commit the transaction to the ledger
-        return subFlow(new FinalityFlow(signedTransaction, Collections.emptyList()));
+    @Suspendable
+    private SignedTransaction finalise(SignedTransaction signedTransaction) throws FlowException {
+        NotarySelector notarySelector = getServiceHub().cordaService(NotarySelector.class);
+        Instant started = getServiceHub().getClock().instant();
+        notarySelector.notarisationStarted(notary);
+        try {
+            return subFlow(new FinalityFlow(signedTransaction, Collections.emptyList(), FINALISING.childProgressTracker()));
+        } finally {
+            notarySelector.notarisationFinished(notary, Duration.between(started, getServiceHub().getClock().instant()));
+        }
     }
 
     //Step 1: Create the output state and command
@@ -84,7 +127,12 @@ public class HouseIssueFlow extends FlowLogic<SignedTransaction> {
      * @return Party
      */
     public Party getNotaryForTransaction(){
-        return getServiceHub().getNetworkMapCache().getNotaryIdentities().get(0);
+        // Chosen once, as the selector may pick a different notary on every call.
+        if(notary == null) {
+            notary = getServiceHub().cordaService(NotarySelector.class).select(
+                    getServiceHub().getNetworkMapCache().getNotaryIdentities(), HouseSchemaV1.normalizeAddress(address));
+        }
+        return notary;
     }
 
     /**
@@ -0,0 +1,158 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.serialization.CordaSerializable;
+import net.corda.core.utilities.ProgressTracker;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+// *************************
+// * HouseNotaryChangeFlow *
+// *************************
+/**
+ * Moves a selection of houses onto another notary, to take load off a busy one without rebuilding the network.
+ *
+ * The houses are chosen by any HouseQueries criteria, such as byOwner, byBuilder or byAddresses. They are moved in
+ * batches of batchSize with Corda's NotaryChangeFlow, one notary change transaction per house, and the flow sleeps
+ * for pauseBetweenBatches after each batch so that the old and new notaries are not flooded. Houses whose change
+ * fails are reported and skipped, not retried.
+ */
+@StartableByRPC
+public class HouseNotaryChangeFlow extends FlowLogic<HouseNotaryChangeFlow.Report> {
+
+    public static final int DEFAULT_BATCH_SIZE = 20;
+    public static final Duration DEFAULT_PAUSE = Duration.ofSeconds(1);
+
+    private static final ProgressTracker.Step SELECTING = new ProgressTracker.Step("Selecting the next batch of houses.");
+    private static final ProgressTracker.Step CHANGING = new ProgressTracker.Step("Changing the notary of the batch.");
+    private static final ProgressTracker.Step PAUSING = new ProgressTracker.Step("Pausing between batches.");
+
+    private final ProgressTracker progressTracker = new ProgressTracker(SELECTING, CHANGING, PAUSING);
+
+    private final QueryCriteria selection;
+    private final Party targetNotary;
+    private final int batchSize;
+    private final Duration pauseBetweenBatches;
+
+    public HouseNotaryChangeFlow(QueryCriteria selection, Party targetNotary) {
+        this(selection, targetNotary, DEFAULT_BATCH_SIZE, DEFAULT_PAUSE);
+    }
+
+    public HouseNotaryChangeFlow(QueryCriteria selection, Party targetNotary, int batchSize, Duration pauseBetweenBatches) {
+        this.selection = selection;
+        this.targetNotary = targetNotary;
+        this.batchSize = batchSize;
+        this.pauseBetweenBatches = pauseBetweenBatches;
+    }
+
+    @Override
+    public ProgressTracker getProgressTracker() {
+        return progressTracker;
+    }
+
+    @Suspendable
+    @Override
+    public Report call() throws FlowException {
+        if(!getServiceHub().getNetworkMapCache().isNotary(targetNotary))
+            throw new FlowException(targetNotary + " is not a notary");
+        if(batchSize < 1 || batchSize > HouseBatchIssueFlow.MAX_BATCH_SIZE)
+            throw new FlowException("Batch size must be between 1 and " + HouseBatchIssueFlow.MAX_BATCH_SIZE);
+        if(pauseBetweenBatches.isNegative())
+            throw new FlowException("The pause between batches cannot be negative");
+
+        List<StateRef> failed = new ArrayList<>();
+        int moved = 0;
+        int batches = 0;
+        while (true) {
+            progressTracker.setCurrentStep(SELECTING);
+            List<StateAndRef<House>> batch = nextBatch(failed);
+            if (batch.isEmpty()) break;
+
+            progressTracker.setCurrentStep(CHANGING);
+            for (StateAndRef<House> house : batch) {
+                try {
+                    subFlow(new NotaryChangeFlow<>(house, targetNotary,
+                            AbstractStateReplacementFlow.Instigator.Companion.tracker()));
+                    moved++;
+                } catch (FlowException e) {
+                    getLogger().warn("Could not move {} to {}: {}", house.getState().getData().getAddress(),
+                            targetNotary, e.getMessage());
+                    failed.add(house.getRef());
+                }
+            }
+            batches++;
+            getLogger().info("Moved {} houses to {} in {} batches, {} failed", moved, targetNotary, batches, failed.size());
+
+            progressTracker.setCurrentStep(PAUSING);
+            if (!pauseBetweenBatches.isZero()) sleep(pauseBetweenBatches);
+        }
+        return new Report(moved, batches, failed);
+    }
+
+    /**
+     * The next selected houses not yet on the target notary, leaving out those that already failed to move. A moved
+     * house's new state is on the target notary, so the query always starts again from the first page.
+     */
+    @Suspendable
+    private List<StateAndRef<House>> nextBatch(List<StateRef> failed) {
+        List<Party> otherNotaries = getServiceHub().getNetworkMapCache().getNotaryIdentities().stream()
+                .filter(notary -> !notary.equals(targetNotary))
+                .collect(Collectors.toList());
+        if (otherNotaries.isEmpty()) return Collections.emptyList();
+
+        QueryCriteria notOnTarget = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED, null, null,
+                otherNotaries);
+        PageSpecification paging = new PageSpecification(DEFAULT_PAGE_NUM, batchSize + failed.size());
+        return getServiceHub().getVaultService()
+                .queryBy(House.class, selection.and(notOnTarget), paging)
+                .getStates().stream()
+                .filter(house -> !failed.contains(house.getRef()))
+                .limit(batchSize)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * How many houses were moved, in how many batches, and the state refs of those that could not be moved.
+     */
+    @CordaSerializable
+    public static class Report {
+        private final int moved;
+        private final int batches;
+        private final List<StateRef> failed;
+
+        public Report(int moved, int batches, List<StateRef> failed) {
+            this.moved = moved;
+            this.batches = batches;
+            this.failed = failed;
+        }
+
+        public int getMoved() {
+            return moved;
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+
+        public List<StateRef> getFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return "Moved " + moved + " houses in " + batches + " batches, " + failed.size() + " failed";
+        }
+    }
+}
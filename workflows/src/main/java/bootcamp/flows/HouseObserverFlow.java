@@ -0,0 +1,109 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.node.StatesToRecord;
+import net.corda.core.transactions.SignedTransaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// *********************
+// * HouseObserverFlow *
+// *********************
+/**
+ * Sends finalised house transactions to an observer, such as a house's builder, outside the flow that finalised them.
+ *
+ * Started by the ObserverDistributionService with transaction ids for one observer. The observer replies with the ids
+ * it has not yet recorded, and only those are sent, so an id the observer already has costs little.
+ */
+public class HouseObserverFlow {
+
+    private HouseObserverFlow(){}
+
+    @InitiatingFlow
+    @StartableByService
+    public static class HouseObserverInitiator extends FlowLogic<Integer>{
+        private final Party observer;
+        private final List<SecureHash> txIds;
+
+        public HouseObserverInitiator(Party observer, List<SecureHash> txIds) {
+            this.observer = observer;
+            this.txIds = txIds;
+        }
+
+        /**
+         * Returns how many of the transactions the observer was missing and has now been sent.
+         */
+        @Suspendable
+        @Override
+        public Integer call() throws FlowException {
+            if(txIds.isEmpty() || txIds.size() > ObserverDistributionService.MAX_BATCH)
+                throw new FlowException("A batch must hold between 1 and " + ObserverDistributionService.MAX_BATCH
+                        + " transactions");
+            for(SecureHash txId : txIds) {
+                if(getServiceHub().getValidatedTransactions().getTransaction(txId) == null)
+                    throw new FlowException("Transaction " + txId + " is not recorded yet");
+            }
+
+            FlowSession session = initiateFlow(observer);
+            List<SecureHash> missing = session.sendAndReceive(List.class, txIds).unwrap(list -> {
+                List<SecureHash> checked = new ArrayList<>();
+                for(Object txId : list) {
+                    if(!(txId instanceof SecureHash) || !txIds.contains(txId))
+                        throw new FlowException("Unexpected transaction request from " + observer);
+                    checked.add((SecureHash) txId);
+                }
+                return checked;
+            });
+            for(SecureHash txId : missing) {
+                subFlow(new SendTransactionFlow(session, getServiceHub().getValidatedTransactions().getTransaction(txId)));
+            }
+            return missing.size();
+        }
+    }
+
+    @InitiatedBy(HouseObserverInitiator.class)
+    public static class HouseObserverResponder extends FlowLogic<Void>{
+        private final FlowSession otherSide;
+
+        public HouseObserverResponder(FlowSession otherSide) {
+            this.otherSide = otherSide;
+        }
+
+        @Override
+        @Suspendable
+        public Void call() throws FlowException {
+            List<SecureHash> missing = otherSide.receive(List.class).unwrap(list -> {
+                if(list.size() > ObserverDistributionService.MAX_BATCH)
+                    throw new FlowException("Too many transactions in one batch");
+                List<SecureHash> unrecorded = new ArrayList<>();
+                for(Object txId : list) {
+                    if(!(txId instanceof SecureHash)) throw new FlowException("Expected a list of transaction ids");
+                    if(getServiceHub().getValidatedTransactions().getTransaction((SecureHash) txId) == null)
+                        unrecorded.add((SecureHash) txId);
+                }
+                return unrecorded;
+            });
+            otherSide.send(missing);
+
+            for(SecureHash txId : missing) {
+                // Resolved and verified without recording, so that it is only recorded once it has been checked.
+                SignedTransaction stx = subFlow(new ReceiveTransactionFlow(otherSide, true, StatesToRecord.NONE));
+                if(!stx.getId().equals(txId))
+                    throw new FlowException("Received " + stx.getId() + " instead of " + txId);
+                // We only keep transactions about houses we built.
+                boolean ours = stx.getTx().getOutputStates().stream().anyMatch(output ->
+                        output instanceof House && ((House) output).getBuilder().equals(getOurIdentity()));
+                if(!ours)
+                    throw new FlowException("Transaction " + txId + " creates no house built by us");
+                getServiceHub().recordTransactions(StatesToRecord.ONLY_RELEVANT, Collections.singletonList(stx));
+            }
+            return null;
+        }
+    }
+}
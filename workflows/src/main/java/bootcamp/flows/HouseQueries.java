@@ -0,0 +1,108 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.HouseSchemaV1;
+import bootcamp.contracts.HouseSchemaV1.PersistentHouse;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.node.services.vault.Builder;
+import net.corda.core.node.services.vault.Column;
+import net.corda.core.node.services.vault.ColumnPredicate;
+import net.corda.core.node.services.vault.CriteriaExpression;
+import net.corda.core.node.services.vault.FieldInfo;
+import net.corda.core.node.services.vault.QueryCriteria;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.getField;
+
+/**
+ * Vault query criteria over the HouseSchemaV1 columns, shared by the house flows.
+ */
+public class HouseQueries {
+
+    private HouseQueries(){}
+
+    /**
+     * Matches the unconsumed house at the given address, using the indexed normalized address column.
+     */
+    public static QueryCriteria byAddress(String address) {
+        CriteriaExpression<PersistentHouse, Boolean> addressIndex = column("normalizedAddress",
+                Builder.INSTANCE.equal(HouseSchemaV1.normalizeAddress(address)));
+        return new QueryCriteria.VaultCustomQueryCriteria<>(addressIndex);
+    }
+
+    /**
+     * Matches the unconsumed houses at any of the given addresses.
+     */
+    public static QueryCriteria byAddresses(Collection<String> addresses) {
+        CriteriaExpression<PersistentHouse, Boolean> addressIndex = column("normalizedAddress",
+                Builder.INSTANCE.in(addresses.stream()
+                        .map(HouseSchemaV1::normalizeAddress)
+                        .collect(Collectors.toList())));
+        return new QueryCriteria.VaultCustomQueryCriteria<>(addressIndex);
+    }
+
+    /**
+     * Matches the unconsumed houses whose normalized address sorts after the given address's, for keyset paging.
+     */
+    public static QueryCriteria byAddressAfter(String address) {
+        CriteriaExpression<PersistentHouse, Boolean> after = column("normalizedAddress",
+                Builder.INSTANCE.greaterThan(HouseSchemaV1.normalizeAddress(address)));
+        return new QueryCriteria.VaultCustomQueryCriteria<>(after);
+    }
+
+    /**
+     * Matches the unconsumed houses owned by the party with the given name.
+     */
+    public static QueryCriteria byOwner(CordaX500Name owner) {
+        CriteriaExpression<PersistentHouse, Boolean> ownerColumn = column("owner",
+                Builder.INSTANCE.equal(owner.toString()));
+        return new QueryCriteria.VaultCustomQueryCriteria<>(ownerColumn);
+    }
+
+    /**
+     * Matches the unconsumed houses built by the party with the given name.
+     */
+    public static QueryCriteria byBuilder(CordaX500Name builder) {
+        CriteriaExpression<PersistentHouse, Boolean> builderColumn = column("builder",
+                Builder.INSTANCE.equal(builder.toString()));
+        return new QueryCriteria.VaultCustomQueryCriteria<>(builderColumn);
+    }
+
+    /**
+     * Matches the unconsumed houses built within the given years, inclusive. Either end may be null to leave the
+     * range open on that side.
+     */
+    public static QueryCriteria byConstructionYear(Integer from, Integer to) {
+        if(from == null && to == null) throw new IllegalArgumentException("A Construction Year Range Needs At Least One End");
+        ColumnPredicate<Integer> range = from == null ? Builder.INSTANCE.lessThanOrEqual(to)
+                : to == null ? Builder.INSTANCE.greaterThanOrEqual(from)
+                : Builder.INSTANCE.between(from, to);
+        return new QueryCriteria.VaultCustomQueryCriteria<>(column("constructionYear", range));
+    }
+
+    /**
+     * Matches the unconsumed houses with the given number of bedrooms.
+     */
+    public static QueryCriteria byNumberOfBedRooms(int numberOfBedRooms) {
+        CriteriaExpression<PersistentHouse, Boolean> bedRooms = column("numberOfBedRooms",
+                Builder.INSTANCE.equal(numberOfBedRooms));
+        return new QueryCriteria.VaultCustomQueryCriteria<>(bedRooms);
+    }
+
+    /**
+     * A predicate on one HouseSchemaV1 column, typed by the schema's entity so that it can be combined with others.
+     */
+    static <C> CriteriaExpression<PersistentHouse, Boolean> column(String name, ColumnPredicate<C> predicate) {
+        return new CriteriaExpression.ColumnPredicateExpression<>(new Column<PersistentHouse, C>(field(name)),
+                predicate);
+    }
+
+    static FieldInfo field(String name) {
+        try {
+            return getField(name, HouseSchemaV1.PersistentHouse.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("HouseSchemaV1 has no column " + name, e);
+        }
+    }
+}
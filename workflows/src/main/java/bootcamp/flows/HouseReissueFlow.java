@@ -0,0 +1,384 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseContract;
+import bootcamp.contracts.HouseSchemaV1;
+import bootcamp.contracts.HouseSchemaV1.PersistentHouse;
+import bootcamp.contracts.HouseState;
+import co.paralleluniverse.fibers.Suspendable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.node.ServiceHub;
+import net.corda.core.node.StatesToRecord;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.Builder;
+import net.corda.core.node.services.vault.CriteriaExpression;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.transactions.WireTransaction;
+import net.corda.core.utilities.ProgressTracker;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+// ********************
+// * HouseReissueFlow *
+// ********************
+/**
+ * Replaces a house we own with an equivalent one that has no history, so that transferring it no longer makes every
+ * new owner resolve and store the whole chain of transactions back to its issue.
+ *
+ * It takes two transactions. We exit the house with an Exit command that both we and its builder sign. Once that is
+ * notarised, the builder, as the house's issuer, issues the same house to us again with a Reissue command naming the
+ * exit transaction, which we check before signing. If the builder is us, both steps happen locally.
+ *
+ * If the second step fails, the house has left the ledger with nothing in its place, and the flow's error names the
+ * exit transaction. HouseReissueRecoveryInitiator takes that id and asks the builder to re-issue against it: the
+ * builder checks the exit again, and that it has not already re-issued it, before issuing.
+ */
+public class HouseReissueFlow {
+
+    private static final int REISSUE_CHECK_PAGE_SIZE = 200;
+
+    private HouseReissueFlow(){}
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class HouseReissueInitiator extends FlowLogic<SignedTransaction>{
+        private static final ProgressTracker.Step EXITING = new ProgressTracker.Step("Exiting the old house");
+        private static final ProgressTracker.Step REISSUING = new ProgressTracker.Step("Re-issuing the house");
+
+        private final ProgressTracker progressTracker = new ProgressTracker(EXITING, REISSUING);
+
+        private final String address;
+
+        public HouseReissueInitiator(String address) {
+            this.address = address;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            StateAndRef<House> house = getInputState();
+            Party builder = house.getState().getData().getBuilder();
+
+            progressTracker.setCurrentStep(EXITING);
+            TransactionBuilder exitBuilder = getExitTransactionBuilder(house);
+            exitBuilder.verify(getServiceHub());
+            SignedTransaction signedExit = getServiceHub().signInitialTransaction(exitBuilder);
+
+            if(builder.equals(getOurIdentity())) {
+                SignedTransaction exit = subFlow(new FinalityFlow(signedExit, Collections.emptyList()));
+
+                progressTracker.setCurrentStep(REISSUING);
+                try {
+                    return reissueLocally(this, exit, ImmutableList.of(house.getState().getData()));
+                } catch (FlowException e) {
+                    throw notReissued(exit, e);
+                }
+            }
+
+            FlowSession builderSession = initiateFlow(builder);
+            SignedTransaction exit = subFlow(new FinalityFlow(subFlow(new CollectSignaturesFlow(signedExit,
+                    ImmutableList.of(builderSession))), ImmutableList.of(builderSession)));
+
+            progressTracker.setCurrentStep(REISSUING);
+            try {
+                SignedTransaction signedReissue = subFlow(new ReissueSignature(builderSession, exit,
+                        ImmutableList.of(house.getState().getData())));
+                return subFlow(new ReceiveFinalityFlow(builderSession, signedReissue.getId()));
+            } catch (FlowException e) {
+                throw notReissued(exit, e);
+            }
+        }
+
+        /**
+         * The unconsumed house we own at this flow's address.
+         * @return StateAndRef
+         * @throws FlowException
+         */
+        public StateAndRef<House> getInputState() throws FlowException{
+            List<StateAndRef<House>> houses = getServiceHub().getVaultService().queryBy(House.class,
+                    HouseQueries.byAddress(address).and(HouseQueries.byOwner(getOurIdentity().getName())),
+                    new PageSpecification(DEFAULT_PAGE_NUM, 1)).getStates();
+            if(houses.isEmpty())
+                throw new FlowException("House Not Found");
+            return houses.get(0);
+        }
+
+        public TransactionBuilder getExitTransactionBuilder(StateAndRef<House> house) {
+            House houseState = house.getState().getData();
+            return new TransactionBuilder(house.getState().getNotary())
+                    .addInputState(house)
+                    .addCommand(new Command<>(new HouseContract.Commands.Exit(), new ArrayList<>(ImmutableSet.of(
+                            houseState.getOwner().getOwningKey(), houseState.getBuilder().getOwningKey()))));
+        }
+    }
+
+    @InitiatedBy(HouseReissueInitiator.class)
+    public static class HouseReissueResponder extends FlowLogic<SignedTransaction>{
+        private final FlowSession otherSide;
+
+        public HouseReissueResponder(FlowSession otherSide) {
+            this.otherSide = otherSide;
+        }
+
+        @Override
+        @Suspendable
+        public SignedTransaction call() throws FlowException {
+            // We only help exit houses that we built, that the requester owns, and that we will re-issue.
+            SignedTransaction signedExit = subFlow(new SignTransactionFlow(otherSide) {
+
+                @Suspendable
+                @Override
+                protected void checkTransaction(SignedTransaction stx) throws FlowException {
+                    WireTransaction tx = stx.getTx();
+                    if(tx.getCommands().size() != 1
+                            || !(tx.getCommands().get(0).getValue() instanceof HouseContract.Commands.Exit))
+                        throw new FlowException("Expected the exit of a house");
+                    exitedHouses(getServiceHub(), tx.getInputs(), getOurIdentity(), otherSide.getCounterparty());
+                }
+            });
+            SignedTransaction exit = subFlow(new ReceiveFinalityFlow(otherSide, signedExit.getId()));
+
+            List<House> exited = exitedHouses(getServiceHub(), exit.getTx().getInputs(), getOurIdentity(),
+                    otherSide.getCounterparty());
+            return reissueForOwner(this, exit, exited, otherSide);
+        }
+    }
+
+    /**
+     * Finishes a re-issue whose exit was notarised but which was never re-issued, for instance because the builder
+     * failed or refused after the exit. Run by the owner with the exit transaction's id, which HouseReissueInitiator's
+     * error names. The builder re-issues only if the exit consumed houses it built for us and it has not already
+     * re-issued them.
+     */
+    @InitiatingFlow
+    @StartableByRPC
+    public static class HouseReissueRecoveryInitiator extends FlowLogic<SignedTransaction>{
+        private final SecureHash exitTxId;
+
+        public HouseReissueRecoveryInitiator(SecureHash exitTxId) {
+            this.exitTxId = exitTxId;
+        }
+
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            SignedTransaction exit = getServiceHub().getValidatedTransactions().getTransaction(exitTxId);
+            if(exit == null)
+                throw new FlowException("Exit transaction " + exitTxId + " is not recorded here");
+            checkIsExit(exit);
+            List<StateRef> inputs = exit.getTx().getInputs();
+            if(inputs.isEmpty())
+                throw new FlowException("Transaction " + exitTxId + " exits no houses");
+            ContractState first = getServiceHub().toStateAndRef(inputs.get(0)).getState().getData();
+            if(!(first instanceof House))
+                throw new FlowException("Only houses may be exited for re-issue");
+            Party builder = ((House) first).getBuilder();
+            List<House> exited = exitedHouses(getServiceHub(), inputs, builder, getOurIdentity());
+
+            if(builder.equals(getOurIdentity()))
+                return reissueLocally(this, exit, exited);
+
+            FlowSession builderSession = initiateFlow(builder);
+            // The builder may not have recorded the exit if the original flow failed during finality.
+            subFlow(new SendTransactionFlow(builderSession, exit));
+            SignedTransaction signedReissue = subFlow(new ReissueSignature(builderSession, exit, exited));
+            return subFlow(new ReceiveFinalityFlow(builderSession, signedReissue.getId()));
+        }
+    }
+
+    @InitiatedBy(HouseReissueRecoveryInitiator.class)
+    public static class HouseReissueRecoveryResponder extends FlowLogic<SignedTransaction>{
+        private final FlowSession otherSide;
+
+        public HouseReissueRecoveryResponder(FlowSession otherSide) {
+            this.otherSide = otherSide;
+        }
+
+        @Override
+        @Suspendable
+        public SignedTransaction call() throws FlowException {
+            // Resolved, checked for the notary's signature and recorded, so that the exited houses are spent here too.
+            SignedTransaction exit = subFlow(new ReceiveTransactionFlow(otherSide, true, StatesToRecord.ONLY_RELEVANT));
+            checkIsExit(exit);
+            List<House> exited = exitedHouses(getServiceHub(), exit.getTx().getInputs(), getOurIdentity(),
+                    otherSide.getCounterparty());
+            return reissueForOwner(this, exit, exited, otherSide);
+        }
+    }
+
+    // Checked by the owner before it signs a re-issue: it must name the exit and give back exactly the exited houses.
+    private static class ReissueSignature extends SignTransactionFlow {
+        private final SecureHash exitTxId;
+        private final Party notary;
+        private final List<House> exited;
+
+        ReissueSignature(FlowSession builderSession, SignedTransaction exit, List<House> exited) {
+            super(builderSession);
+            this.exitTxId = exit.getId();
+            this.notary = exit.getNotary();
+            this.exited = exited;
+        }
+
+        @Suspendable
+        @Override
+        protected void checkTransaction(SignedTransaction stx) throws FlowException {
+            WireTransaction tx = stx.getTx();
+            if(!tx.getInputs().isEmpty() || tx.getCommands().size() != 1
+                    || !(tx.getCommands().get(0).getValue() instanceof HouseContract.Commands.Reissue))
+                throw new FlowException("Expected the re-issue of our house");
+            if(!exitTxId.equals(((HouseContract.Commands.Reissue) tx.getCommands().get(0).getValue()).getExitTxId()))
+                throw new FlowException("The re-issue does not name our exit transaction");
+            if(!Objects.equals(tx.getNotary(), notary))
+                throw new FlowException("The re-issued house must keep its notary");
+            List<ContractState> outputs = tx.getOutputStates();
+            if(outputs.size() != exited.size())
+                throw new FlowException("The re-issued houses are not the ones we exited");
+            for(int i = 0; i < outputs.size(); i++) {
+                if(!(outputs.get(i) instanceof House) || !sameHouse(exited.get(i), (House) outputs.get(i)))
+                    throw new FlowException("The re-issued houses are not the ones we exited");
+            }
+        }
+    }
+
+    // The builder's side of a re-issue for another owner: build it, collect the owner's signature and finalise.
+    @Suspendable
+    private static SignedTransaction reissueForOwner(FlowLogic<?> flow, SignedTransaction exit,
+                                                     List<House> exited, FlowSession owner) throws FlowException {
+        checkNotReissued(flow.getServiceHub(), exit.getId(), exited, flow.getOurIdentity());
+        TransactionBuilder reissueBuilder = getReissueTransactionBuilder(exit.getId(), exit.getNotary(), exited,
+                flow.getOurIdentity());
+        reissueBuilder.verify(flow.getServiceHub());
+        SignedTransaction signedReissue = flow.subFlow(new CollectSignaturesFlow(
+                flow.getServiceHub().signInitialTransaction(reissueBuilder), ImmutableList.of(owner)));
+        return flow.subFlow(new FinalityFlow(signedReissue, ImmutableList.of(owner)));
+    }
+
+    // A re-issue of our own houses, which needs no other party.
+    @Suspendable
+    private static SignedTransaction reissueLocally(FlowLogic<?> flow, SignedTransaction exit,
+                                                    List<House> exited) throws FlowException {
+        checkNotReissued(flow.getServiceHub(), exit.getId(), exited, flow.getOurIdentity());
+        TransactionBuilder reissueBuilder = getReissueTransactionBuilder(exit.getId(), exit.getNotary(), exited,
+                flow.getOurIdentity());
+        reissueBuilder.verify(flow.getServiceHub());
+        return flow.subFlow(new FinalityFlow(flow.getServiceHub().signInitialTransaction(reissueBuilder),
+                Collections.emptyList()));
+    }
+
+    private static FlowException notReissued(SignedTransaction exit, FlowException cause) {
+        return new FlowException("The house was exited in " + exit.getId() + " but not re-issued: " + cause.getMessage()
+                + ". Run HouseReissueRecoveryInitiator with that transaction id to re-issue it", cause);
+    }
+
+    private static void checkIsExit(SignedTransaction exit) throws FlowException {
+        WireTransaction tx = exit.getTx();
+        if(tx.getCommands().size() != 1 || !(tx.getCommands().get(0).getValue() instanceof HouseContract.Commands.Exit))
+            throw new FlowException("Transaction " + exit.getId() + " is not the exit of a house");
+    }
+
+    // Each exit may be re-issued once. Every house the builder has recorded at the exited addresses is checked for
+    // having been created by a re-issue naming the exit, consumed or not, as it may have moved on since.
+    private static void checkNotReissued(ServiceHub serviceHub, SecureHash exitTxId, List<House> exited,
+                                         Party builder) throws FlowException {
+        List<String> addresses = new ArrayList<>();
+        for(House house : exited) addresses.add(HouseSchemaV1.normalizeAddress(house.getAddress()));
+        CriteriaExpression<PersistentHouse, Boolean> atAddresses = HouseQueries.column("normalizedAddress",
+                Builder.INSTANCE.in(addresses));
+        CriteriaExpression<PersistentHouse, Boolean> builtBy = HouseQueries.column("builder",
+                Builder.INSTANCE.equal(builder.getName().toString()));
+        QueryCriteria criteria = new QueryCriteria.VaultCustomQueryCriteria<>(atAddresses, Vault.StateStatus.ALL)
+                .and(new QueryCriteria.VaultCustomQueryCriteria<>(builtBy, Vault.StateStatus.ALL));
+        Set<SecureHash> checked = new HashSet<>();
+        for(int page = DEFAULT_PAGE_NUM; ; page++) {
+            Vault.Page<House> houses = serviceHub.getVaultService().queryBy(House.class, criteria,
+                    new PageSpecification(page, REISSUE_CHECK_PAGE_SIZE));
+            for(StateAndRef<House> house : houses.getStates()) {
+                SecureHash txId = house.getRef().getTxhash();
+                if(!checked.add(txId)) continue;
+                SignedTransaction stx = serviceHub.getValidatedTransactions().getTransaction(txId);
+                if(stx == null) continue;
+                for(Command<?> command : stx.getTx().getCommands()) {
+                    if(command.getValue() instanceof HouseContract.Commands.Reissue
+                            && exitTxId.equals(((HouseContract.Commands.Reissue) command.getValue()).getExitTxId()))
+                        throw new FlowException("Exit " + exitTxId + " was already re-issued in " + txId);
+                }
+            }
+            if((long) page * REISSUE_CHECK_PAGE_SIZE >= houses.getTotalStatesAvailable()) return;
+        }
+    }
+
+    // The houses consumed by an exit, which must all have been built by `builder` and owned by `owner`, and must all
+    // be of one version, as they are re-issued under that version's contract.
+    private static List<House> exitedHouses(ServiceHub serviceHub, List<StateRef> inputs, Party builder,
+                                            Party owner) throws FlowException {
+        List<House> houses = new ArrayList<>();
+        for(StateRef input : inputs) {
+            ContractState state = serviceHub.toStateAndRef(input).getState().getData();
+            if(!(state instanceof House))
+                throw new FlowException("Only houses may be exited for re-issue");
+            House house = (House) state;
+            if(!house.getBuilder().equals(builder) || !house.getOwner().equals(owner))
+                throw new FlowException("House " + house.getAddress() + " was not built by us for " + owner);
+            if(!houses.isEmpty() && houses.get(0).getClass() != house.getClass())
+                throw new FlowException("Houses of different versions cannot be re-issued together");
+            houses.add(house);
+        }
+        return houses;
+    }
+
+    private static TransactionBuilder getReissueTransactionBuilder(SecureHash exitTxId, Party notary,
+                                                                   List<House> exited, Party builder) {
+        TransactionBuilder transactionBuilder = new TransactionBuilder(notary);
+        List<PublicKey> signers = new ArrayList<>();
+        signers.add(builder.getOwningKey());
+        // exitedHouses has checked that each house was built by `builder`, so it is re-issued as it was, under the
+        // contract of its own version.
+        for(House house : exited) {
+            transactionBuilder.addOutputState(house);
+            if(!signers.contains(house.getOwner().getOwningKey())) signers.add(house.getOwner().getOwningKey());
+        }
+        return transactionBuilder.addCommand(new Command<>(new HouseContract.Commands.Reissue(exitTxId), signers));
+    }
+
+    // HouseStateV2 has value equality; HouseState does not, so its fields are compared.
+    private static boolean sameHouse(House expected, House actual) {
+        if(expected.getClass() != actual.getClass())
+            return false;
+        if(!(expected instanceof HouseState))
+            return expected.equals(actual);
+        return sameHouse((HouseState) expected, (HouseState) actual);
+    }
+
+    private static boolean sameHouse(HouseState expected, HouseState actual) {
+        return expected.getAddress().equals(actual.getAddress())
+                && expected.getBuildArea().equals(actual.getBuildArea())
+                && expected.getNumberOfBedRooms().equals(actual.getNumberOfBedRooms())
+                && expected.getConstructionYear().equals(actual.getConstructionYear())
+                && expected.getBuilder().equals(actual.getBuilder())
+                && expected.getOwner().equals(actual.getOwner());
+    }
+}
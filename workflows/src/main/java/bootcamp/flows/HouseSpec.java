@@ -0,0 +1,38 @@
+package bootcamp.flows;
+
+import net.corda.core.serialization.CordaSerializable;
+
+/**
+ * The details of a house to be issued, as passed to HouseBatchIssueFlow over RPC.
+ */
+@CordaSerializable
+public class HouseSpec {
+
+    private final String address;
+    private final String buildArea;
+    private final Integer numberOfBedRooms;
+    private final Integer constructionYear;
+
+    public HouseSpec(String address, String buildArea, Integer numberOfBedRooms, Integer constructionYear) {
+        this.address = address;
+        this.buildArea = buildArea;
+        this.numberOfBedRooms = numberOfBedRooms;
+        this.constructionYear = constructionYear;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getBuildArea() {
+        return buildArea;
+    }
+
+    public Integer getNumberOfBedRooms() {
+        return numberOfBedRooms;
+    }
+
+    public Integer getConstructionYear() {
+        return constructionYear;
+    }
+}
@@ -0,0 +1,298 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseSchemaV1;
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.CommandData;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.node.ServiceHub;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.ProgressTracker;
+
+import java.security.PublicKey;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+// *****************
+// * HouseSwapFlow *
+// *****************
+/**
+ * Exchanges houses among several owners in one transaction, so that either every house changes hands or none does,
+ * with one signature round and one notarisation.
+ *
+ * The initiator must own at least one of the houses. Every other owner, outgoing or incoming, is sent the full list
+ * of legs, sends back its own houses with SendStateAndRefFlow (which also gives the initiator their history), and
+ * signs. Builders that are not otherwise involved only receive the finished transaction.
+ */
+public class HouseSwapFlow {
+
+    // The largest number of houses that can be swapped in one transaction.
+    public static final int MAX_LEGS = 100;
+
+    private HouseSwapFlow(){}
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class HouseSwapInitiator extends FlowLogic<SignedTransaction>{
+        private static final ProgressTracker.Step GATHERING = new ProgressTracker.Step("Gathering the houses from their owners");
+        private static final ProgressTracker.Step BUILDING = new ProgressTracker.Step("Building the transaction");
+        private static final ProgressTracker.Step SIGNING = new ProgressTracker.Step("Signing the transaction");
+        private static final ProgressTracker.Step COLLECTING = new ProgressTracker.Step("Collecting signatures") {
+            @Override
+            public ProgressTracker childProgressTracker() {
+                return CollectSignaturesFlow.Companion.tracker();
+            }
+        };
+        private static final ProgressTracker.Step FINALISING = new ProgressTracker.Step("Notarising and recording") {
+            @Override
+            public ProgressTracker childProgressTracker() {
+                return FinalityFlow.Companion.tracker();
+            }
+        };
+
+        private final ProgressTracker progressTracker = new ProgressTracker(GATHERING, BUILDING, SIGNING, COLLECTING,
+                FINALISING);
+
+        private final List<SwapLeg> legs;
+
+        public HouseSwapInitiator(List<SwapLeg> legs) {
+            this.legs = legs;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            checkLegs(legs, getOurIdentity());
+
+            progressTracker.setCurrentStep(GATHERING);
+            List<StateAndRef<House>> inputStates = new ArrayList<>(queryOwnHouses(getServiceHub(), legs,
+                    getOurIdentity()));
+            List<FlowSession> signerSessions = new ArrayList<>();
+            for(Party signer : getSigners()) {
+                FlowSession session = initiateFlow(signer);
+                session.send(true);
+                session.send(legs);
+                List<StateAndRef<House>> theirs = subFlow(new ReceiveStateAndRefFlow<House>(session));
+                inputStates.addAll(checkHouses(legs, signer, theirs));
+                signerSessions.add(session);
+            }
+
+            progressTracker.setCurrentStep(BUILDING);
+            TransactionBuilder transactionBuilder = getTransactionBuilder(inputStates);
+            transactionBuilder.verify(getServiceHub());
+
+            progressTracker.setCurrentStep(SIGNING);
+            SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
+
+            progressTracker.setCurrentStep(COLLECTING);
+            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction,
+                    signerSessions, COLLECTING.childProgressTracker()));
+
+            progressTracker.setCurrentStep(FINALISING);
+            List<FlowSession> flowSessions = new ArrayList<>(signerSessions);
+            for(Party builder : getObservers(inputStates)) {
+                FlowSession builderSession = initiateFlow(builder);
+                builderSession.send(false);
+                flowSessions.add(builderSession);
+            }
+            return subFlow(new FinalityFlow(fullySignedTransaction, flowSessions, FINALISING.childProgressTracker()));
+        }
+
+        /**
+         * Every party other than ourselves that gives or receives a house.
+         */
+        private Set<Party> getSigners() {
+            Set<Party> signers = new LinkedHashSet<>();
+            for(SwapLeg leg : legs) {
+                signers.add(leg.getCurrentOwner());
+                signers.add(leg.getNewOwner());
+            }
+            signers.remove(getOurIdentity());
+            return signers;
+        }
+
+        private Set<Party> getObservers(List<StateAndRef<House>> inputStates) {
+            Set<Party> observers = inputStates.stream().map(stateAndRef -> stateAndRef.getState().getData().getBuilder())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            observers.removeAll(getSigners());
+            observers.remove(getOurIdentity());
+            return observers;
+        }
+
+        /**
+         * All houses in one transaction must share a notary.
+         * @return Party
+         * @throws FlowException
+         */
+        public Party getNotaryFromInputStates(List<StateAndRef<House>> inputStates) throws FlowException{
+            Set<Party> notaries = inputStates.stream().map(stateAndRef -> stateAndRef.getState().getNotary())
+                    .collect(Collectors.toSet());
+            if(notaries.size() != 1)
+                throw new FlowException("Houses swapped together must share a notary, found " + notaries);
+            return notaries.iterator().next();
+        }
+
+        /**
+         * Each version of a house is moved under its own contract, so houses swapped together must all be of one
+         * version: all HouseStates or all upgraded HouseStateV2s.
+         * @return Command
+         * @throws FlowException
+         */
+        public Command<CommandData> getCommand(List<StateAndRef<House>> inputStates) throws FlowException{
+            Set<Class<?>> versions = inputStates.stream().map(stateAndRef -> stateAndRef.getState().getData().getClass())
+                    .collect(Collectors.toSet());
+            if(versions.size() != 1)
+                throw new FlowException("Houses of different versions cannot be swapped together");
+            Set<PublicKey> signers = new LinkedHashSet<>();
+            for(SwapLeg leg : legs) {
+                signers.add(leg.getCurrentOwner().getOwningKey());
+                signers.add(leg.getNewOwner().getOwningKey());
+            }
+            return new Command<>(inputStates.get(0).getState().getData().transferCommand(), new ArrayList<>(signers));
+        }
+
+        public TransactionBuilder getTransactionBuilder(List<StateAndRef<House>> inputStates) throws FlowException{
+            Map<String, Party> newOwners = newOwnersByAddress(legs);
+            TransactionBuilder transactionBuilder = new TransactionBuilder(getNotaryFromInputStates(inputStates))
+                    .addCommand(getCommand(inputStates));
+            for(StateAndRef<House> inputState : inputStates) {
+                House house = inputState.getState().getData();
+                transactionBuilder.addInputState(inputState);
+                transactionBuilder.addOutputState(house.withNewOwner(
+                        newOwners.get(HouseSchemaV1.normalizeAddress(house.getAddress()))));
+            }
+            return transactionBuilder;
+        }
+    }
+
+    @InitiatedBy(HouseSwapInitiator.class)
+    public static class HouseSwapResponder extends FlowLogic<SignedTransaction>{
+        private final FlowSession otherSide;
+
+        public HouseSwapResponder(FlowSession otherSide) {
+            this.otherSide = otherSide;
+        }
+
+        @Override
+        @Suspendable
+        public SignedTransaction call() throws FlowException {
+            boolean signer = otherSide.receive(Boolean.class).unwrap(it -> it);
+            if(!signer)
+                return subFlow(new ReceiveFinalityFlow(otherSide));
+
+            List<SwapLeg> legs = otherSide.receive(List.class).unwrap(list -> {
+                List<SwapLeg> checked = new ArrayList<>();
+                for(Object leg : list) {
+                    if(!(leg instanceof SwapLeg)) throw new FlowException("Expected a list of swap legs");
+                    checked.add((SwapLeg) leg);
+                }
+                checkLegs(checked, otherSide.getCounterparty());
+                return checked;
+            });
+
+            // A swap must give us something back for anything it takes.
+            boolean giving = legs.stream().anyMatch(leg -> leg.getCurrentOwner().equals(getOurIdentity()));
+            boolean receiving = legs.stream().anyMatch(leg -> leg.getNewOwner().equals(getOurIdentity()));
+            if(giving && !receiving)
+                throw new FlowException("The swap gives away our houses without giving us one");
+
+            subFlow(new SendStateAndRefFlow(otherSide, queryOwnHouses(getServiceHub(), legs, getOurIdentity())));
+
+            Map<String, Party> newOwners = newOwnersByAddress(legs);
+            SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(otherSide) {
+
+                @Suspendable
+                @Override
+                protected void checkTransaction(SignedTransaction stx) throws FlowException {
+                    // The contract pairs each input with an output at the same address, so checking that the
+                    // outputs are exactly the agreed legs also rules out any extra input of ours.
+                    List<ContractState> outputs = stx.getTx().getOutputStates();
+                    if(outputs.size() != legs.size())
+                        throw new FlowException("The swap does not have one output per leg");
+                    for(ContractState output : outputs) {
+                        if(!(output instanceof House))
+                            throw new FlowException("Only houses may be swapped");
+                        House house = (House) output;
+                        if(!house.getOwner().equals(newOwners.get(HouseSchemaV1.normalizeAddress(house.getAddress()))))
+                            throw new FlowException("House " + house.getAddress() + " does not go to its agreed new owner");
+                    }
+                }
+            });
+
+            return subFlow(new ReceiveFinalityFlow(otherSide, signedTransaction.getId()));
+        }
+    }
+
+    // The legs must name each house once, move each to someone else, and include a house of the initiator's.
+    private static void checkLegs(List<SwapLeg> legs, Party initiator) throws FlowException {
+        if(legs == null || legs.size() < 2)
+            throw new FlowException("A swap needs at least two houses");
+        if(legs.size() > MAX_LEGS)
+            throw new FlowException("At most " + MAX_LEGS + " houses may be swapped together");
+        Set<String> addresses = new HashSet<>();
+        for(SwapLeg leg : legs) {
+            if(leg.getCurrentOwner().equals(leg.getNewOwner()))
+                throw new FlowException("House " + leg.getAddress() + " is not changing hands");
+            if(!addresses.add(HouseSchemaV1.normalizeAddress(leg.getAddress())))
+                throw new FlowException("Each house may only be swapped once");
+        }
+        if(legs.stream().noneMatch(leg -> leg.getCurrentOwner().equals(initiator)))
+            throw new FlowException("The initiator of a swap must give at least one house");
+    }
+
+    private static Map<String, Party> newOwnersByAddress(List<SwapLeg> legs) {
+        return legs.stream().collect(Collectors.toMap(leg -> HouseSchemaV1.normalizeAddress(leg.getAddress()),
+                SwapLeg::getNewOwner));
+    }
+
+    // The houses that the legs take from `owner`, from owner's own vault.
+    @Suspendable
+    private static List<StateAndRef<House>> queryOwnHouses(ServiceHub serviceHub,
+                                                           List<SwapLeg> legs, Party owner) throws FlowException {
+        Set<String> requested = legs.stream().filter(leg -> leg.getCurrentOwner().equals(owner))
+                .map(leg -> HouseSchemaV1.normalizeAddress(leg.getAddress()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if(requested.isEmpty())
+            return Collections.emptyList();
+
+        List<StateAndRef<House>> houses = serviceHub.getVaultService().queryBy(House.class,
+                HouseQueries.byAddresses(requested).and(HouseQueries.byOwner(owner.getName())),
+                new PageSpecification(DEFAULT_PAGE_NUM, MAX_LEGS)).getStates();
+        houses.stream().map(house -> HouseSchemaV1.normalizeAddress(house.getState().getData().getAddress()))
+                .forEach(requested::remove);
+        if(!requested.isEmpty())
+            throw new FlowException("Houses Not Found: " + requested);
+        return houses;
+    }
+
+    // The houses `owner` sent must be exactly those the legs take from it.
+    private static List<StateAndRef<House>> checkHouses(List<SwapLeg> legs, Party owner,
+                                                        List<StateAndRef<House>> houses) throws FlowException {
+        Set<String> expected = legs.stream().filter(leg -> leg.getCurrentOwner().equals(owner))
+                .map(leg -> HouseSchemaV1.normalizeAddress(leg.getAddress()))
+                .collect(Collectors.toSet());
+        Set<String> received = new HashSet<>();
+        for(StateAndRef<House> house : houses) {
+            House houseState = house.getState().getData();
+            if(!houseState.getOwner().equals(owner))
+                throw new FlowException(owner + " sent a house it does not own");
+            received.add(HouseSchemaV1.normalizeAddress(houseState.getAddress()));
+        }
+        if(received.size() != houses.size() || !received.equals(expected))
+            throw new FlowException(owner + " did not send the houses it is swapping");
+        return houses;
+    }
+}
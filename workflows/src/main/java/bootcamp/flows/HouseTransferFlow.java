@@ -1,40 +1,89 @@
 package bootcamp.flows;
 
-import bootcamp.contracts.HouseContract;
-import bootcamp.contracts.HouseState;
+import bootcamp.contracts.House;
 import co.paralleluniverse.fibers.Suspendable;
 import com.google.common.collect.ImmutableList;
 import net.corda.core.contracts.Command;
+import net.corda.core.contracts.CommandData;
 import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
 import net.corda.core.flows.*;
 import net.corda.core.identity.Party;
+import net.corda.core.node.services.StatesNotAvailableException;
+import net.corda.core.node.services.vault.PageSpecification;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.NonEmptySet;
 import net.corda.core.utilities.ProgressTracker;
 import org.hibernate.Session;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
 
 // ******************
 // * HouseTransferFlow *
 // ******************
 public class HouseTransferFlow {
 
+    // How often a transfer tries to reserve its input, and to get it notarised, before giving up.
+    public static final int MAX_ATTEMPTS = 3;
+    public static final Duration BASE_BACKOFF = Duration.ofMillis(200);
+
     private HouseTransferFlow(){}
 
     @InitiatingFlow
     @StartableByRPC
+    @StartableByService
     public static class HouseTransferInitiator extends FlowLogic<SignedTransaction>{
-        private final ProgressTracker progressTracker = new ProgressTracker();
+        private static final ProgressTracker.Step QUERYING = new ProgressTracker.Step("Querying the vault for the house");
+        private static final ProgressTracker.Step BUILDING = new ProgressTracker.Step("Building the transaction");
+        private static final ProgressTracker.Step VERIFYING = new ProgressTracker.Step("Verifying the transaction");
+        private static final ProgressTracker.Step SIGNING = new ProgressTracker.Step("Signing the transaction");
+        private static final ProgressTracker.Step COLLECTING = new ProgressTracker.Step("Collecting signatures") {
+            @Override
+            public ProgressTracker childProgressTracker() {
+                return CollectSignaturesFlow.Companion.tracker();
+            }
+        };
+        private static final ProgressTracker.Step FINALISING = new ProgressTracker.Step("Notarising and recording") {
+            @Override
+            public ProgressTracker childProgressTracker() {
+                return FinalityFlow.Companion.tracker();
+            }
+        };
+
+        private static final ProgressTracker.Step BACKING_OFF = new ProgressTracker.Step("Waiting to retry");
+
+        private final ProgressTracker progressTracker = new ProgressTracker(QUERYING, BUILDING, VERIFYING, SIGNING,
+                COLLECTING, FINALISING, BACKING_OFF);
+        private final FlowStepTimer stepTimer = new FlowStepTimer("HouseTransferInitiator", progressTracker);
 
         private final Party newOwner;
         private final String address;
+        // Null to use the node's configured ObserverDistributionService mode.
+        private final ObserverDistributionService.Mode observerDistribution;
+
+        // Resolved once per attempt and shared by every step that needs the input. Only the ref is checkpointed; the
+        // state is reloaded from it if the flow is restored.
+        private StateRef inputRef;
+        private transient StateAndRef<? extends House> inputState;
+        // Set once an input has turned out to be locked or spent, after which the input is looked up in the vault
+        // only, in case the index has not yet heard that it was consumed.
+        private boolean bypassIndex;
 
         public HouseTransferInitiator(Party newOwner, String address) {
+            this(newOwner, address, null);
+        }
+
+        public HouseTransferInitiator(Party newOwner, String address,
+                                      ObserverDistributionService.Mode observerDistribution) {
             this.newOwner = newOwner;
             this.address = address;
+            this.observerDistribution = observerDistribution;
         }
 
         @Override
@@ -45,58 +94,184 @@ public class HouseTransferFlow {
         @Suspendable
         @Override
         public SignedTransaction call() throws FlowException {
+            boolean succeeded = false;
+            try {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        SignedTransaction finalisedTransaction = transfer();
+                        succeeded = true;
+                        return finalisedTransaction;
+                    } catch (NotaryException e) {
+                        // Another transaction spent our input first. Only a conflict is worth retrying, and only
+                        // with a freshly resolved input.
+                        if(!(e.getError() instanceof NotaryError.Conflict) || attempt >= MAX_ATTEMPTS)
+                            throw e;
+                        getLogger().info("Notary conflict transferring {}, retrying (attempt {} of {})", address,
+                                attempt, MAX_ATTEMPTS);
+                        backOff(attempt);
+                        forgetSpentInputState();
+                    }
+                }
+            } finally {
+                stepTimer.finish(getServiceHub(), getLogger(), succeeded);
+            }
+        }
 
+        @Suspendable
+        private SignedTransaction transfer() throws FlowException {
+            stepTimer.step(QUERYING);
+            reserveInputState();
+
+            // Only the signed transaction, a party and sessions are held across the suspensions below.
+            SignedTransaction signedTransaction = buildAndSign();
+            Party builder = getInputState().getState().getData().getBuilder();
+            boolean builderObserves = !builder.equals(getOurIdentity()) && !builder.equals(newOwner);
+            boolean inBackground = builderObserves && getObserverDistribution() == ObserverDistributionService.Mode.BACKGROUND;
+
+            // Step 7: Collection Signature from CounterParty. The responder is told whether it signs or only
+            // observes, as the builder is not a signer.
+            stepTimer.step(COLLECTING);
+            FlowSession newOwnerSession = initiateFlow(newOwner);
+            newOwnerSession.send(true);
+            FlowSession builderSession = null;
+            if(builderObserves && !inBackground) {
+                builderSession = initiateFlow(builder);
+                builderSession.send(false);
+            }
+
+            signedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction,
+                    Collections.singleton(newOwnerSession), COLLECTING.childProgressTracker()));
+
+            // Step 8: Notarise the transaction and record the state updates.
+            stepTimer.step(FINALISING);
+            signedTransaction = subFlow(new FinalityFlow(signedTransaction, builderSession == null
+                    ? ImmutableList.of(newOwnerSession) : ImmutableList.of(newOwnerSession, builderSession),
+                    FINALISING.childProgressTracker()));
+            if(inBackground)
+                getServiceHub().cordaService(ObserverDistributionService.class)
+                        .distribute(signedTransaction.getId(), Collections.singleton(builder));
+            return signedTransaction;
+        }
+
+        private ObserverDistributionService.Mode getObserverDistribution() {
+            return observerDistribution != null ? observerDistribution
+                    : getServiceHub().cordaService(ObserverDistributionService.class).getMode();
+        }
+
+        // Kept out of transfer() so that the TransactionBuilder is not a local of any frame that suspends, and so is
+        // never written into the flow's checkpoint.
+        private SignedTransaction buildAndSign() throws FlowException {
+            stepTimer.step(BUILDING);
             TransactionBuilder transactionBuilder = getTransactionBuilder();
 
             // Step 5: Verify the transaction against the contract.
+            stepTimer.step(VERIFYING);
             transactionBuilder.verify(getServiceHub());
 
             // Step 6: Self-Sign the transaction
-            SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
-
-            // Step 7: Collection Signature from CounterParty
-            List<FlowSession> flowSessions = new ArrayList<>();
-            FlowSession newOwnerSession = initiateFlow(newOwner);
-            flowSessions.add(newOwnerSession);
+            stepTimer.step(SIGNING);
+            return getServiceHub().signInitialTransaction(transactionBuilder);
+        }
 
-            if(!(getOurIdentity().equals(getInputState().getState().getData().getBuilder()))) {
-                FlowSession builderSession = initiateFlow(getInputState().getState().getData().getBuilder());
-                flowSessions.add(builderSession);
+        /**
+         * Soft locks the input for this flow, so that a concurrent transfer of the same house on this node fails
+         * here instead of at the notary. While another flow holds the lock we back off and look again, since by then
+         * the house may have moved on; after MAX_ATTEMPTS we give up. The lock is released when the flow ends.
+         * @throws FlowException
+         */
+        @Suspendable
+        public void reserveInputState() throws FlowException{
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    getServiceHub().getVaultService().softLockReserve(getRunId().getUuid(),
+                            NonEmptySet.of(getInputState().getRef()));
+                    return;
+                } catch (StatesNotAvailableException e) {
+                    if(attempt >= MAX_ATTEMPTS)
+                        throw new FlowException("House Is Being Transferred By Another Flow", e);
+                    backOff(attempt);
+                    forgetInputState();
+                }
             }
+        }
 
-            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction,
-                    Collections.singleton(newOwnerSession)));
-
-            // Step 8: Notarise the transaction and record the state updates.
-            return subFlow(new FinalityFlow(fullySignedTransaction, flowSessions));
+        // Waits BASE_BACKOFF doubled for each attempt so far, plus up to as much again at random so that flows
+        // contending for the same house do not retry in step.
+        @Suspendable
+        private void backOff(int attempt) throws FlowException {
+            stepTimer.step(BACKING_OFF);
+            long millis = BASE_BACKOFF.toMillis() << (attempt - 1);
+            sleep(Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis + 1)));
         }
 
         // Step 1: Fetch the input state from the vault and filter it based in the address. The filtered result is used
         // as in input to the transaction.
         /**
          * TODO 1: Fetch the input state from the vault.
+         * The house is a HouseState or, once upgraded, a HouseStateV2; callers that know which may ask for it by type.
          * @return StateAndRef
          * @throws FlowException
          */
-        public StateAndRef<HouseState> getInputState() throws FlowException{
-            return getServiceHub().getVaultService().queryBy(HouseState.class)
-                    .getStates().stream().filter(houseStateStateAndRef -> {
-                HouseState houseState = houseStateStateAndRef.getState().getData();
-                return houseState.getAddress().equals(this.address);
-            }).findAny().orElseThrow(() -> new FlowException("House Not Found"));
+        @SuppressWarnings("unchecked")
+        public <T extends House> StateAndRef<T> getInputState() throws FlowException{
+            if(inputState == null) {
+                inputState = inputRef == null ? queryInputState() : getServiceHub().<House>toStateAndRef(inputRef);
+                inputRef = inputState.getRef();
+            }
+            return (StateAndRef<T>) inputState;
+        }
+
+        // Drops an input that could not be locked, so that the next attempt looks in the vault. It stays in the index:
+        // it may only be locked by a flow that then fails, and if it was spent the index will hear of it.
+        private void forgetInputState() {
+            inputState = null;
+            inputRef = null;
+            bypassIndex = true;
+        }
+
+        // Drops an input the notary says was spent by a transaction this node may never record, here and in the
+        // index.
+        private void forgetSpentInputState() {
+            if(inputRef != null)
+                getServiceHub().cordaService(HouseIndexService.class).forget(address, getOurIdentity(), inputRef);
+            forgetInputState();
+        }
+
+        /**
+         * Looks up the unconsumed house we own at this flow's address in the HouseIndexService, falling back to the
+         * vault when the index does not have it. Retries go to the vault directly.
+         * @return StateAndRef
+         * @throws FlowException
+         */
+        protected StateAndRef<? extends House> queryInputState() throws FlowException{
+            if (!bypassIndex) {
+                StateAndRef<House> indexed = getServiceHub().cordaService(HouseIndexService.class)
+                        .find(this.address, getOurIdentity());
+                if (indexed != null)
+                    return indexed;
+            }
+
+            // The address column is indexed, so this is a single-row lookup however large the vault grows. Only a
+            // house we own will do: after a lost race the vault may still know the house under its new owner. Querying
+            // by House finds the house whether or not it has been upgraded.
+            List<StateAndRef<House>> houses = getServiceHub().getVaultService().queryBy(House.class,
+                    HouseQueries.byAddress(this.address).and(HouseQueries.byOwner(getOurIdentity().getName())),
+                    new PageSpecification(DEFAULT_PAGE_NUM, 1)).getStates();
+            if (houses.isEmpty())
+                throw new FlowException("House Not Found");
+            return houses.get(0);
         }
 
         // Step 2: Create the output state and command
         /**
          * TODO 2: Create the output state of the transaction.
+         * The output is the same version of the house as the input.
          * @return HouseState
          * @throws FlowException
          */
-        public HouseState getOutputState() throws FlowException{
-            HouseState inputHouseState = getInputState().getState().getData();
-            return new HouseState(inputHouseState.getAddress(), inputHouseState.getBuildArea(),
-                    inputHouseState.getNumberOfBedRooms(), inputHouseState.getConstructionYear(),
-                    inputHouseState.getBuilder(), newOwner);
+        @SuppressWarnings("unchecked")
+        public <T extends House> T getOutputState() throws FlowException{
+            return (T) getInputState().getState().getData().withNewOwner(newOwner);
         }
 
         /**
@@ -104,9 +279,9 @@ public class HouseTransferFlow {
          * @return HouseState
          * @throws FlowException
          */
-        public Command<HouseContract.Commands.Transfer> getCommand(){
+        public Command<CommandData> getCommand() throws FlowException{
             return new Command<>(
-                    new HouseContract.Commands.Transfer(),
+                    getInputState().getState().getData().transferCommand(),
                     ImmutableList.of(getOurIdentity().getOwningKey(), newOwner.getOwningKey())
             );
         }
@@ -130,7 +305,7 @@ public class HouseTransferFlow {
         public TransactionBuilder getTransactionBuilder() throws FlowException{
             return new TransactionBuilder(getNotaryFromInputState())
                     .addInputState(getInputState())
-                    .addOutputState(getOutputState())
+                    .addOutputState(this.<House>getOutputState())
                     .addCommand(getCommand());
         }
     }
@@ -147,6 +322,10 @@ public class HouseTransferFlow {
         @Override
         @Suspendable
         public SignedTransaction call() throws FlowException {
+            boolean signer = otherSide.receive(Boolean.class).unwrap(it -> it);
+            if(!signer)
+                return subFlow(new ReceiveFinalityFlow(otherSide));
+
             SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(otherSide) {
 
                 @Suspendable
@@ -0,0 +1,32 @@
+package bootcamp.flows;
+
+import net.corda.core.identity.Party;
+import net.corda.core.serialization.CordaSerializable;
+
+/**
+ * One transfer in a HouseFanOutTransferFlow: the house we own at the address goes to the new owner.
+ */
+@CordaSerializable
+public class HouseTransferOrder {
+
+    private final String address;
+    private final Party newOwner;
+
+    public HouseTransferOrder(String address, Party newOwner) {
+        this.address = address;
+        this.newOwner = newOwner;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public Party getNewOwner() {
+        return newOwner;
+    }
+
+    @Override
+    public String toString() {
+        return address + " -> " + newOwner;
+    }
+}
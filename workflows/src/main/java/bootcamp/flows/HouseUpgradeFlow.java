@@ -0,0 +1,240 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.AreaUnit;
+import bootcamp.contracts.HouseContractV2;
+import bootcamp.contracts.HouseState;
+import bootcamp.contracts.HouseStateV2;
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.serialization.CordaSerializable;
+import net.corda.core.utilities.ProgressTracker;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+// ********************
+// * HouseUpgradeFlow *
+// ********************
+/**
+ * Upgrades every HouseState we own to a HouseStateV2, using Corda's contract upgrade mechanism with HouseContractV2.
+ *
+ * Houses are taken in batches. For each batch, every builder other than ourselves is sent the batch's state refs
+ * in one message and authorises the upgrade of those it holds; the houses are then upgraded one by one with
+ * ContractUpgradeFlow. Houses whose build area cannot be parsed or is not positive, or whose upgrade fails, are
+ * skipped and reported.
+ *
+ * An upgraded house is moved, swapped, re-issued and indexed like any other: those flows query for House, and build
+ * a HouseStateV2's outputs under HouseContractV2.
+ */
+public class HouseUpgradeFlow {
+
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    private HouseUpgradeFlow(){}
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class HouseUpgradeInitiator extends FlowLogic<Report>{
+        private static final ProgressTracker.Step SELECTING = new ProgressTracker.Step("Selecting the next batch of houses");
+        private static final ProgressTracker.Step AUTHORISING = new ProgressTracker.Step("Collecting upgrade authorisations");
+        private static final ProgressTracker.Step UPGRADING = new ProgressTracker.Step("Upgrading the batch");
+
+        private final ProgressTracker progressTracker = new ProgressTracker(SELECTING, AUTHORISING, UPGRADING);
+
+        private final int batchSize;
+
+        public HouseUpgradeInitiator() {
+            this(DEFAULT_BATCH_SIZE);
+        }
+
+        public HouseUpgradeInitiator(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        @Suspendable
+        @Override
+        public Report call() throws FlowException {
+            if(batchSize < 1 || batchSize > HouseBatchIssueFlow.MAX_BATCH_SIZE)
+                throw new FlowException("Batch size must be between 1 and " + HouseBatchIssueFlow.MAX_BATCH_SIZE);
+
+            List<StateRef> skipped = new ArrayList<>();
+            int upgraded = 0;
+            int batches = 0;
+            while (true) {
+                progressTracker.setCurrentStep(SELECTING);
+                List<StateAndRef<HouseState>> candidates = nextBatch(skipped);
+                if (candidates.isEmpty()) break;
+                List<StateAndRef<HouseState>> batch = new ArrayList<>();
+                for(StateAndRef<HouseState> house : candidates) {
+                    if(isUpgradable(house.getState().getData())) batch.add(house);
+                    else skipped.add(house.getRef());
+                }
+                if (batch.isEmpty()) continue;
+
+                progressTracker.setCurrentStep(AUTHORISING);
+                batch = authorise(batch, skipped);
+
+                progressTracker.setCurrentStep(UPGRADING);
+                for(StateAndRef<HouseState> house : batch) {
+                    try {
+                        subFlow(new ContractUpgradeFlow.Initiate<HouseState, HouseStateV2>(house, HouseContractV2.class));
+                        upgraded++;
+                    } catch (FlowException e) {
+                        getLogger().warn("Could not upgrade {}: {}", house.getState().getData().getAddress(), e.getMessage());
+                        skipped.add(house.getRef());
+                    }
+                }
+                batches++;
+                getLogger().info("Upgraded {} houses in {} batches, {} skipped", upgraded, batches, skipped.size());
+            }
+            return new Report(upgraded, batches, skipped);
+        }
+
+        /**
+         * The next HouseStates we own that have not been skipped. Upgraded houses are consumed, so the query always
+         * starts again from the first page.
+         */
+        @Suspendable
+        private List<StateAndRef<HouseState>> nextBatch(List<StateRef> skipped) {
+            QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED)
+                    .and(HouseQueries.byOwner(getOurIdentity().getName()));
+            PageSpecification paging = new PageSpecification(DEFAULT_PAGE_NUM, batchSize + skipped.size());
+            return getServiceHub().getVaultService().queryBy(HouseState.class, criteria, paging).getStates().stream()
+                    .filter(house -> !skipped.contains(house.getRef()))
+                    .limit(batchSize)
+                    .collect(Collectors.toList());
+        }
+
+
+        /**
+         * Asks each builder to authorise the upgrade of its houses in the batch, and returns the houses that every
+         * other participant has authorised. The rest are added to skipped.
+         */
+        @Suspendable
+        private List<StateAndRef<HouseState>> authorise(List<StateAndRef<HouseState>> batch, List<StateRef> skipped)
+                throws FlowException {
+            Map<Party, List<StateAndRef<HouseState>>> byBuilder = batch.stream()
+                    .filter(house -> !house.getState().getData().getBuilder().equals(getOurIdentity()))
+                    .collect(Collectors.groupingBy(house -> house.getState().getData().getBuilder(),
+                            LinkedHashMap::new, Collectors.toList()));
+
+            Set<StateRef> refused = new HashSet<>();
+            for(Map.Entry<Party, List<StateAndRef<HouseState>>> builder : byBuilder.entrySet()) {
+                List<StateRef> refs = builder.getValue().stream().map(StateAndRef::getRef).collect(Collectors.toList());
+                FlowSession session = initiateFlow(builder.getKey());
+                List<StateRef> authorised = session.sendAndReceive(List.class, refs).unwrap(list -> {
+                    List<StateRef> checked = new ArrayList<>();
+                    for(Object ref : list) {
+                        if(!(ref instanceof StateRef) || !refs.contains(ref))
+                            throw new FlowException("Unexpected authorisation from " + builder.getKey());
+                        checked.add((StateRef) ref);
+                    }
+                    return checked;
+                });
+                refs.stream().filter(ref -> !authorised.contains(ref)).forEach(refused::add);
+            }
+            skipped.addAll(refused);
+            return batch.stream().filter(house -> !refused.contains(house.getRef())).collect(Collectors.toList());
+        }
+    }
+
+    @InitiatedBy(HouseUpgradeInitiator.class)
+    public static class HouseUpgradeResponder extends FlowLogic<Void>{
+        private final FlowSession otherSide;
+
+        public HouseUpgradeResponder(FlowSession otherSide) {
+            this.otherSide = otherSide;
+        }
+
+        /**
+         * Authorises the upgrade of the requested houses that are in our vault, owned by the requester and built by
+         * us, and replies with the refs that were authorised.
+         */
+        @Override
+        @Suspendable
+        public Void call() throws FlowException {
+            List<StateRef> requested = otherSide.receive(List.class).unwrap(list -> {
+                if(list.size() > HouseBatchIssueFlow.MAX_BATCH_SIZE)
+                    throw new FlowException("Too many houses in one upgrade request");
+                List<StateRef> refs = new ArrayList<>();
+                for(Object ref : list) {
+                    if(!(ref instanceof StateRef)) throw new FlowException("Expected a list of state refs");
+                    refs.add((StateRef) ref);
+                }
+                return refs;
+            });
+
+            List<StateRef> authorised = new ArrayList<>();
+            if(!requested.isEmpty()) {
+                QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED, null, requested);
+                PageSpecification paging = new PageSpecification(DEFAULT_PAGE_NUM, requested.size());
+                for(StateAndRef<HouseState> house :
+                        getServiceHub().getVaultService().queryBy(HouseState.class, criteria, paging).getStates()) {
+                    HouseState houseState = house.getState().getData();
+                    if(!houseState.getOwner().equals(otherSide.getCounterparty())
+                            || !houseState.getBuilder().equals(getOurIdentity()) || !isUpgradable(houseState))
+                        continue;
+                    subFlow(new ContractUpgradeFlow.Authorise(house, HouseContractV2.class));
+                    authorised.add(house.getRef());
+                }
+            }
+            otherSide.send(authorised);
+            return null;
+        }
+    }
+
+    // HouseContractV2 requires a positive build area, so a house without one could never be transferred once upgraded.
+    private static boolean isUpgradable(HouseState house) {
+        try {
+            return AreaUnit.parseArea(house.getBuildArea()) > 0;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * How many houses were upgraded, in how many batches, and the state refs of those that were skipped.
+     */
+    @CordaSerializable
+    public static class Report {
+        private final int upgraded;
+        private final int batches;
+        private final List<StateRef> skipped;
+
+        public Report(int upgraded, int batches, List<StateRef> skipped) {
+            this.upgraded = upgraded;
+            this.batches = batches;
+            this.skipped = skipped;
+        }
+
+        public int getUpgraded() {
+            return upgraded;
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+
+        public List<StateRef> getSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public String toString() {
+            return "Upgraded " + upgraded + " houses in " + batches + " batches, " + skipped.size() + " skipped";
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package bootcamp.flows;
+
+import net.corda.core.identity.Party;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the notary for newly issued houses, so that issuance can be spread over every notary on the network
+ * instead of always using the first one.
+ *
+ * The strategy is read from the `notarySelection` key of the workflows CorDapp's config:
+ *
+ * - FIRST (the default): the first notary in the network map, as before.
+ * - ROUND_ROBIN: each issuance uses the next notary in turn.
+ * - ADDRESS_HASH: the house's normalized address picks the notary, so the same address always lands on the same one.
+ * - LEAST_LOADED: the notary with the lowest recent notarisation latency, weighted by the notarisations this node
+ *   currently has in flight with it.
+ *
+ * Flows report each notarisation through notarisationStarted/notarisationFinished, which feeds LEAST_LOADED.
+ */
+@CordaService
+public class NotarySelector extends SingletonSerializeAsToken {
+    private final static Logger logger = LoggerFactory.getLogger(NotarySelector.class);
+
+    public static final String STRATEGY_CONFIG_KEY = "notarySelection";
+    // The weight given to the latest latency sample in each notary's moving average.
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    public enum Strategy { FIRST, ROUND_ROBIN, ADDRESS_HASH, LEAST_LOADED }
+
+    private final Strategy strategy;
+    private final AtomicInteger nextNotary = new AtomicInteger();
+    private final Map<Party, NotaryLoad> loads = new ConcurrentHashMap<>();
+
+    public NotarySelector(AppServiceHub serviceHub) {
+        this(configuredStrategy(serviceHub));
+        logger.info("Selecting notaries for issuance with the {} strategy", strategy);
+    }
+
+    NotarySelector(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    private static Strategy configuredStrategy(AppServiceHub serviceHub) {
+        try {
+            if (!serviceHub.getAppContext().getConfig().exists(STRATEGY_CONFIG_KEY)) return Strategy.FIRST;
+            return Strategy.valueOf(serviceHub.getAppContext().getConfig().getString(STRATEGY_CONFIG_KEY));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + STRATEGY_CONFIG_KEY + " strategy; expected one of "
+                    + Arrays.toString(Strategy.values()), e);
+        }
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Picks one of the given notaries for a house at the given address.
+     */
+    public Party select(List<Party> notaries, String normalizedAddress) {
+        if (notaries.isEmpty()) throw new IllegalStateException("The network has no notaries");
+        if (strategy == Strategy.FIRST || notaries.size() == 1) return notaries.get(0);
+
+        // The network map does not promise an order, so sort by name to make the choice the same on every node.
+        List<Party> sorted = new ArrayList<>(notaries);
+        sorted.sort(Comparator.comparing(party -> party.getName().toString()));
+        switch (strategy) {
+            case ROUND_ROBIN:
+                return sorted.get(Math.floorMod(nextNotary.getAndIncrement(), sorted.size()));
+            case ADDRESS_HASH:
+                return sorted.get(Math.floorMod(normalizedAddress.hashCode(), sorted.size()));
+            case LEAST_LOADED:
+                // A notary without samples yet is assumed to be as fast as the fastest known one, so that each is
+                // tried early on without all of a burst piling onto it.
+                double fastest = sorted.stream().map(this::load).filter(load -> load.sampled)
+                        .mapToDouble(load -> load.averageMillis).min().orElse(1);
+                return sorted.stream().min(Comparator.comparingDouble(notary -> load(notary).score(fastest))).get();
+            default:
+                throw new IllegalStateException("Unhandled strategy " + strategy);
+        }
+    }
+
+    public void notarisationStarted(Party notary) {
+        load(notary).inFlight.incrementAndGet();
+    }
+
+    public void notarisationFinished(Party notary, Duration latency) {
+        NotaryLoad load = load(notary);
+        // A flow restored from a checkpoint after a restart finishes without having started on this run.
+        load.inFlight.updateAndGet(inFlight -> Math.max(0, inFlight - 1));
+        load.record(Math.max(0, latency.toMillis()));
+    }
+
+    /**
+     * The smoothed notarisation latency in milliseconds for a notary, or zero if none has been recorded.
+     */
+    public double averageLatencyMillis(Party notary) {
+        return load(notary).averageMillis;
+    }
+
+    private NotaryLoad load(Party notary) {
+        return loads.computeIfAbsent(notary, key -> new NotaryLoad());
+    }
+
+    private static class NotaryLoad {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double averageMillis;
+        private volatile boolean sampled;
+
+        synchronized void record(long latencyMillis) {
+            averageMillis = sampled ? averageMillis + LATENCY_SMOOTHING * (latencyMillis - averageMillis) : latencyMillis;
+            sampled = true;
+        }
+
+        double score(double unsampledMillis) {
+            return (sampled ? averageMillis : unsampledMillis) * (inFlight.get() + 1);
+        }
+    }
+}
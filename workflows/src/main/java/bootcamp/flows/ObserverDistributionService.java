@@ -0,0 +1,117 @@
+package bootcamp.flows;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.identity.Party;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import kotlin.Unit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distributes finalised transactions to observers, such as a house's builder, in the background, so that a transfer
+ * only waits for its signers.
+ *
+ * The mode is read from the `observerDistribution` key of the workflows CorDapp's config:
+ *
+ * - INLINE (the default): observers are sessions of the transferring flow's FinalityFlow, as before.
+ * - BACKGROUND: the transfer finalises with its signers only and hands the transaction id to this service.
+ *
+ * Each id is handed straight to a HouseObserverFlow of its own, which is checkpointed like any flow, so the send
+ * survives a restart of the node. A send to an offline observer does not fail: Corda keeps the message and delivers
+ * it when the observer is back, and the flow finishes then. Nothing is queued or dropped here. A flow that fails, as
+ * when the observer refuses the transaction, is logged with the ids it did not deliver.
+ */
+@CordaService
+public class ObserverDistributionService extends SingletonSerializeAsToken {
+    private final static Logger logger = LoggerFactory.getLogger(ObserverDistributionService.class);
+
+    public static final String MODE_CONFIG_KEY = "observerDistribution";
+    // The most ids a HouseObserverFlow accepts in one go.
+    public static final int MAX_BATCH = 50;
+
+    public enum Mode { INLINE, BACKGROUND }
+
+    private final AppServiceHub serviceHub;
+    private final Mode mode;
+    // Flows are started off the caller's thread, as the caller is itself a flow and may not wait on another's start.
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "house-observer-distribution");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public ObserverDistributionService(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        this.mode = configuredMode(serviceHub);
+        logger.info("Distributing house transactions to observers {}", mode);
+        serviceHub.registerUnloadHandler(() -> {
+            executor.shutdown();
+            return Unit.INSTANCE;
+        });
+    }
+
+    private static Mode configuredMode(AppServiceHub serviceHub) {
+        try {
+            if (!serviceHub.getAppContext().getConfig().exists(MODE_CONFIG_KEY)) return Mode.INLINE;
+            return Mode.valueOf(serviceHub.getAppContext().getConfig().getString(MODE_CONFIG_KEY));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + MODE_CONFIG_KEY + " mode; expected one of "
+                    + Arrays.toString(Mode.values()), e);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Starts a HouseObserverFlow sending a recorded transaction to each of the observers.
+     */
+    public void distribute(SecureHash txId, Collection<Party> observers) {
+        for (Party observer : observers) {
+            List<SecureHash> txIds = ImmutableList.of(txId);
+            pending.incrementAndGet();
+            try {
+                executor.execute(() -> send(observer, txIds));
+            } catch (RejectedExecutionException e) {
+                pending.decrementAndGet();
+                logger.error("Could not send transactions {} to {}: the node is stopping", txIds, observer, e);
+            }
+        }
+    }
+
+    /**
+     * The number of sends started since the node started whose HouseObserverFlow has not finished, over all
+     * observers.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    private void send(Party observer, List<SecureHash> txIds) {
+        try {
+            serviceHub.startFlow(new HouseObserverFlow.HouseObserverInitiator(observer, txIds))
+                    .getReturnValue().toCompletableFuture()
+                    .whenComplete((sent, error) -> {
+                        pending.decrementAndGet();
+                        if (error != null)
+                            logger.error("Could not send transactions {} to {}", txIds, observer, error);
+                    });
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            logger.error("Could not start sending transactions {} to {}", txIds, observer, e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package bootcamp.flows;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of step durations. Samples fall into buckets whose bounds grow by 25% each, from 10
+ * microseconds to about ten minutes, so percentiles are reported to within a quarter of their true value. The count,
+ * mean and maximum are exact.
+ */
+class StepHistogram {
+    private static final double SMALLEST_BOUND_MICROS = 10;
+    private static final double GROWTH = 1.25;
+    private static final long[] BOUNDS_MICROS = bounds(TimeUnit.MINUTES.toMicros(10));
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    private static long[] bounds(long largestMicros) {
+        int size = (int) Math.ceil(Math.log(largestMicros / SMALLEST_BOUND_MICROS) / Math.log(GROWTH)) + 1;
+        long[] bounds = new long[size];
+        for (int i = 0; i < size; i++) {
+            bounds[i] = (long) Math.ceil(SMALLEST_BOUND_MICROS * Math.pow(GROWTH, i));
+        }
+        return bounds;
+    }
+
+    void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, nanos));
+        buckets.incrementAndGet(bucket(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    private static int bucket(long micros) {
+        int low = 0;
+        int high = BOUNDS_MICROS.length;
+        // The first bucket whose upper bound holds the sample; the last bucket is unbounded.
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (BOUNDS_MICROS[middle] < micros) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    double getMeanMillis() {
+        long samples = count.get();
+        return samples == 0 ? 0 : totalMicros.get() / (samples * 1000.0);
+    }
+
+    double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * The upper bound of the bucket holding the given percentile, in milliseconds, capped at the maximum seen.
+     */
+    double getPercentileMillis(double percentile) {
+        long samples = count.get();
+        if (samples == 0) return 0;
+        long rank = (long) Math.ceil(samples * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && i < BOUNDS_MICROS.length) return Math.min(BOUNDS_MICROS[i], maxMicros.get()) / 1000.0;
+        }
+        return getMaxMillis();
+    }
+}
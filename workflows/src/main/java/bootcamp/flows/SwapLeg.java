@@ -0,0 +1,38 @@
+package bootcamp.flows;
+
+import net.corda.core.identity.Party;
+import net.corda.core.serialization.CordaSerializable;
+
+/**
+ * One house in a HouseSwapFlow: the house at the address moves from its current owner to the new owner.
+ */
+@CordaSerializable
+public class SwapLeg {
+
+    private final String address;
+    private final Party currentOwner;
+    private final Party newOwner;
+
+    public SwapLeg(String address, Party currentOwner, Party newOwner) {
+        this.address = address;
+        this.currentOwner = currentOwner;
+        this.newOwner = newOwner;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public Party getCurrentOwner() {
+        return currentOwner;
+    }
+
+    public Party getNewOwner() {
+        return newOwner;
+    }
+
+    @Override
+    public String toString() {
+        return address + ": " + currentOwner + " -> " + newOwner;
+    }
+}
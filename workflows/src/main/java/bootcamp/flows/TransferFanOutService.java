@@ -0,0 +1,154 @@
+package bootcamp.flows;
+
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import kotlin.Unit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs a batch of independent house transfers side by side, so that moving N houses to N buyers takes about as long
+ * as the slowest transfer rather than the sum of them all.
+ *
+ * Each order becomes its own HouseTransferInitiator. At most `parallelism` of a batch's transfers run at once, and
+ * the next is started as soon as one finishes. The default parallelism is read from the `fanOutParallelism` key of
+ * the workflows CorDapp's config. Batches are held in memory until their results are collected, so a batch is lost
+ * if the node stops; the transfers it had already started still run to completion.
+ */
+@CordaService
+public class TransferFanOutService extends SingletonSerializeAsToken {
+    private final static Logger logger = LoggerFactory.getLogger(TransferFanOutService.class);
+
+    public static final String PARALLELISM_CONFIG_KEY = "fanOutParallelism";
+    public static final int DEFAULT_PARALLELISM = 8;
+    public static final int MAX_PARALLELISM = 64;
+
+    private final AppServiceHub serviceHub;
+    private final int defaultParallelism;
+    private final Map<UUID, Batch> batches = new ConcurrentHashMap<>();
+    // Flows are started from here rather than from the thread that submits, which is usually a flow's own.
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "house-transfer-fan-out");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TransferFanOutService(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        this.defaultParallelism = configuredParallelism(serviceHub);
+        logger.info("Fanning out house transfers {} at a time by default", defaultParallelism);
+        serviceHub.registerUnloadHandler(() -> {
+            executor.shutdownNow();
+            return Unit.INSTANCE;
+        });
+    }
+
+    private static int configuredParallelism(AppServiceHub serviceHub) {
+        if (!serviceHub.getAppContext().getConfig().exists(PARALLELISM_CONFIG_KEY)) return DEFAULT_PARALLELISM;
+        int parallelism = serviceHub.getAppContext().getConfig().getInt(PARALLELISM_CONFIG_KEY);
+        if (parallelism < 1 || parallelism > MAX_PARALLELISM)
+            throw new IllegalArgumentException(PARALLELISM_CONFIG_KEY + " must be between 1 and " + MAX_PARALLELISM);
+        return parallelism;
+    }
+
+    public int getDefaultParallelism() {
+        return defaultParallelism;
+    }
+
+    /**
+     * Starts transferring the orders, at most `parallelism` at a time, and returns the id to collect the results by.
+     */
+    public UUID submit(List<HouseTransferOrder> orders, int parallelism) {
+        if (parallelism < 1 || parallelism > MAX_PARALLELISM)
+            throw new IllegalArgumentException("Parallelism must be between 1 and " + MAX_PARALLELISM);
+        UUID id = UUID.randomUUID();
+        Batch batch = new Batch(new ArrayList<>(orders), parallelism);
+        batches.put(id, batch);
+        executor.execute(batch::startMore);
+        return id;
+    }
+
+    /**
+     * The outcome of every order in the batch, in order, once they have all finished, or null while any is running.
+     * A finished batch is forgotten once its results have been returned.
+     */
+    public List<HouseFanOutTransferFlow.Outcome> collect(UUID id) {
+        Batch batch = batches.get(id);
+        if (batch == null) throw new IllegalArgumentException("Unknown transfer batch " + id);
+        List<HouseFanOutTransferFlow.Outcome> outcomes = batch.outcomes();
+        if (outcomes != null) batches.remove(id);
+        return outcomes;
+    }
+
+    private class Batch {
+        private final List<HouseTransferOrder> orders;
+        private final int parallelism;
+        private final HouseFanOutTransferFlow.Outcome[] outcomes;
+        // Guarded by this batch's monitor.
+        private int next;
+        private int running;
+        private int finished;
+
+        Batch(List<HouseTransferOrder> orders, int parallelism) {
+            this.orders = orders;
+            this.parallelism = parallelism;
+            this.outcomes = new HouseFanOutTransferFlow.Outcome[orders.size()];
+        }
+
+        void startMore() {
+            List<Integer> toStart = new ArrayList<>();
+            synchronized (this) {
+                while (running < parallelism && next < orders.size()) {
+                    toStart.add(next++);
+                    running++;
+                }
+            }
+            for (int index : toStart) start(index);
+        }
+
+        private void start(int index) {
+            HouseTransferOrder order = orders.get(index);
+            try {
+                serviceHub.startFlow(new HouseTransferFlow.HouseTransferInitiator(order.getNewOwner(),
+                        order.getAddress()))
+                        .getReturnValue().toCompletableFuture()
+                        .whenComplete((stx, error) -> finished(index, stx == null ? null : stx.getId(), error));
+            } catch (RuntimeException e) {
+                finished(index, null, e);
+            }
+        }
+
+        private void finished(int index, SecureHash txId, Throwable error) {
+            HouseTransferOrder order = orders.get(index);
+            if (error != null) logger.info("Could not transfer {}: {}", order, error.getMessage());
+            synchronized (this) {
+                outcomes[index] = new HouseFanOutTransferFlow.Outcome(order.getAddress(), order.getNewOwner(), txId,
+                        error == null ? null : String.valueOf(error.getMessage()));
+                running--;
+                finished++;
+            }
+            try {
+                executor.execute(this::startMore);
+            } catch (RuntimeException e) {
+                // The node is stopping.
+                logger.warn("Could not start the rest of the batch", e);
+            }
+        }
+
+        synchronized List<HouseFanOutTransferFlow.Outcome> outcomes() {
+            if (finished < orders.size()) return null;
+            return new ArrayList<>(Arrays.asList(outcomes));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package bootcamp.flows;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AggregateFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+    private String partyA;
+    private String partyB;
+
+    @Before
+    public void setup() throws Exception {
+        network.runNetwork();
+        partyA = nodeA.getInfo().getLegalIdentities().get(0).getName().toString();
+        partyB = nodeB.getInfo().getLegalIdentities().get(0).getName().toString();
+
+        CordaFuture<List<SignedTransaction>> issue = nodeA.startFlow(new HouseBatchIssueFlow(ImmutableList.of(
+                new HouseSpec("Powai Mumbai", "2000sqft", 3, 2019),
+                new HouseSpec("Andheri Mumbai", "1200sqft", 2, 2018),
+                new HouseSpec("Bandra Mumbai", "1500sqft", 2, 2018))));
+        network.runNetwork();
+        issue.get();
+        CordaFuture<SignedTransaction> transfer = nodeA.startFlow(new HouseBulkTransferFlow.HouseBulkTransferInitiator(
+                nodeB.getInfo().getLegalIdentities().get(0), ImmutableList.of("Powai Mumbai", "Bandra Mumbai")));
+        network.runNetwork();
+        transfer.get();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void housesPerOwnerIncludeEveryHouseTheBuilderHolds() throws Exception {
+        Map<String, Long> byOwner = new HashMap<>();
+        for (HouseAggregateRow row : aggregate(nodeA, HouseAggregates.Measure.HOUSES, HouseAggregates.Dimension.OWNER)) {
+            assertNull(row.getBuilder());
+            byOwner.put(row.getOwner(), row.getValue());
+        }
+        assertEquals(2, byOwner.size());
+        assertEquals(1L, (long) byOwner.get(partyA));
+        assertEquals(2L, (long) byOwner.get(partyB));
+    }
+
+    @Test
+    public void bedRoomsPerOwnerAreSummed() throws Exception {
+        List<HouseAggregateRow> rows = aggregate(nodeB, HouseAggregates.Measure.BED_ROOMS,
+                HouseAggregates.Dimension.OWNER);
+        assertEquals(1, rows.size());
+        assertEquals(partyB, rows.get(0).getOwner());
+        assertEquals(5L, rows.get(0).getValue());
+    }
+
+    @Test
+    public void housesPerBuilderByConstructionYear() throws Exception {
+        List<HouseAggregateRow> rows = aggregate(nodeA, HouseAggregates.Measure.HOUSES,
+                HouseAggregates.Dimension.BUILDER, HouseAggregates.Dimension.CONSTRUCTION_YEAR);
+        assertEquals(2, rows.size());
+        // Largest group first.
+        assertEquals(partyA, rows.get(0).getBuilder());
+        assertEquals(Integer.valueOf(2018), rows.get(0).getConstructionYear());
+        assertEquals(2L, rows.get(0).getValue());
+        assertEquals(Integer.valueOf(2019), rows.get(1).getConstructionYear());
+        assertEquals(1L, rows.get(1).getValue());
+    }
+
+    @Test
+    public void ungroupedCountIsOneRow() throws Exception {
+        List<HouseAggregateRow> rows = aggregate(nodeA, HouseAggregates.Measure.HOUSES);
+        assertEquals(1, rows.size());
+        assertEquals(3L, rows.get(0).getValue());
+    }
+
+    @Test
+    public void upgradedHousesAreCounted() throws Exception {
+        CordaFuture<HouseUpgradeFlow.Report> upgrade = nodeB.startFlow(new HouseUpgradeFlow.HouseUpgradeInitiator());
+        network.runNetwork();
+        assertEquals(2, upgrade.get().getUpgraded());
+
+        List<HouseAggregateRow> rows = aggregate(nodeB, HouseAggregates.Measure.BED_ROOMS,
+                HouseAggregates.Dimension.OWNER);
+        assertEquals(1, rows.size());
+        assertEquals(5L, rows.get(0).getValue());
+        assertEquals(3L, aggregate(nodeA, HouseAggregates.Measure.HOUSES).get(0).getValue());
+    }
+
+    @Test
+    public void otherResultsAreSplitIntoOneRowPerGroup() {
+        List<HouseAggregateRow> rows = HouseAggregates.rows(ImmutableList.of(2L, "O=A,L=London,C=GB", 2018,
+                1L, "O=A,L=London,C=GB", 2019), ImmutableList.of(HouseAggregates.Dimension.BUILDER,
+                HouseAggregates.Dimension.CONSTRUCTION_YEAR));
+        assertEquals(2, rows.size());
+        assertEquals("O=A,L=London,C=GB", rows.get(1).getBuilder());
+        assertEquals(Integer.valueOf(2019), rows.get(1).getConstructionYear());
+        assertNull(rows.get(1).getOwner());
+        assertEquals(1L, rows.get(1).getValue());
+    }
+
+    private List<HouseAggregateRow> aggregate(StartedMockNode node, HouseAggregates.Measure measure,
+                                              HouseAggregates.Dimension... groupBy) throws Exception {
+        CordaFuture<List<HouseAggregateRow>> future = node.startFlow(new HouseAggregateFlow(measure, Arrays.asList(groupBy)));
+        network.runNetwork();
+        return future.get();
+    }
+}
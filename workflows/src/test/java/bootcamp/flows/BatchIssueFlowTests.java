@@ -0,0 +1,105 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.HouseState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.FlowException;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class BatchIssueFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    private List<HouseSpec> houses(int count) {
+        List<HouseSpec> houses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            houses.add(new HouseSpec("Unit " + i + ", Powai Mumbai", "1200sqft", 2, 2019));
+        }
+        return houses;
+    }
+
+    @Test
+    public void flowSplitsTheHousesIntoTransactionsOfTheRequestedBatchSize() throws Exception {
+        CordaFuture<List<SignedTransaction>> future = nodeA.startFlow(new HouseBatchIssueFlow(houses(5), 2));
+        network.runNetwork();
+        List<SignedTransaction> transactions = future.get();
+
+        assertEquals(3, transactions.size());
+        assertEquals(2, transactions.get(0).getTx().getOutputStates().size());
+        assertEquals(2, transactions.get(1).getTx().getOutputStates().size());
+        assertEquals(1, transactions.get(2).getTx().getOutputStates().size());
+    }
+
+    @Test
+    public void flowRecordsEveryHouseInTheBuildersVault() throws Exception {
+        CordaFuture<List<SignedTransaction>> future = nodeA.startFlow(new HouseBatchIssueFlow(houses(5), 2));
+        network.runNetwork();
+        future.get();
+
+        nodeA.transaction(() -> {
+            List<HouseState> issued = new ArrayList<>();
+            nodeA.getServices().getVaultService().queryBy(HouseState.class).getStates()
+                    .forEach(stateAndRef -> issued.add(stateAndRef.getState().getData()));
+            assertEquals(5, issued.size());
+            for (HouseState house : issued) {
+                assertEquals(nodeA.getInfo().getLegalIdentities().get(0), house.getBuilder());
+                assertEquals(nodeA.getInfo().getLegalIdentities().get(0), house.getOwner());
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void batchIssuedHousesCanBeTransferredIndividually() throws Exception {
+        CordaFuture<List<SignedTransaction>> issue = nodeA.startFlow(new HouseBatchIssueFlow(houses(3), 3));
+        network.runNetwork();
+        issue.get();
+
+        CordaFuture<SignedTransaction> transfer = nodeA.startFlow(new HouseTransferFlow.HouseTransferInitiator(
+                nodeB.getInfo().getLegalIdentities().get(0), "Unit 1, Powai Mumbai"));
+        network.runNetwork();
+        HouseState transferred = (HouseState) transfer.get().getTx().getOutputStates().get(0);
+
+        assertEquals(nodeB.getInfo().getLegalIdentities().get(0), transferred.getOwner());
+    }
+
+    @Test
+    public void flowRejectsAnOversizedBatch() throws Exception {
+        CordaFuture<List<SignedTransaction>> future = nodeA.startFlow(
+                new HouseBatchIssueFlow(houses(1), HouseBatchIssueFlow.MAX_BATCH_SIZE + 1));
+        network.runNetwork();
+        try {
+            future.get();
+            fail("Expected the oversized batch to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof FlowException);
+        }
+    }
+}
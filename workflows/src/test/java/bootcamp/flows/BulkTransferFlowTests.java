@@ -0,0 +1,79 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.HouseState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.flows.FlowException;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class BulkTransferFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+
+    @Before
+    public void setup() throws Exception {
+        network.runNetwork();
+        CordaFuture<List<SignedTransaction>> issue = nodeA.startFlow(new HouseBatchIssueFlow(ImmutableList.of(
+                new HouseSpec("Powai Mumbai", "2000sqft", 3, 2019),
+                new HouseSpec("Andheri Mumbai", "1200sqft", 2, 2018),
+                new HouseSpec("Bandra Mumbai", "1500sqft", 2, 2017))));
+        network.runNetwork();
+        issue.get();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void flowMovesEveryRequestedHouseInOneTransaction() throws Exception {
+        Party partyB = nodeB.getInfo().getLegalIdentities().get(0);
+        CordaFuture<SignedTransaction> future = nodeA.startFlow(new HouseBulkTransferFlow.HouseBulkTransferInitiator(
+                partyB, ImmutableList.of("Powai Mumbai", "Bandra Mumbai")));
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        assertEquals(2, signedTransaction.getTx().getInputs().size());
+        assertEquals(2, signedTransaction.getTx().getOutputStates().size());
+        for (ContractState output : signedTransaction.getTx().getOutputStates()) {
+            assertEquals(partyB, ((HouseState) output).getOwner());
+        }
+
+        nodeB.transaction(() -> {
+            assertEquals(2, nodeB.getServices().getVaultService().queryBy(HouseState.class).getStates().size());
+            return null;
+        });
+    }
+
+    @Test
+    public void flowFailsWhenAnyHouseIsMissing() throws Exception {
+        CordaFuture<SignedTransaction> future = nodeA.startFlow(new HouseBulkTransferFlow.HouseBulkTransferInitiator(
+                nodeB.getInfo().getLegalIdentities().get(0), ImmutableList.of("Powai Mumbai", "Juhu Mumbai")));
+        network.runNetwork();
+        try {
+            future.get();
+            fail("Expected the transfer to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof FlowException);
+        }
+    }
+}
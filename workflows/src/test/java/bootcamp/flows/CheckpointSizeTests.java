@@ -0,0 +1,123 @@
+package bootcamp.flows;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import kotlin.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+// Runs the house flows one network round at a time and measures the checkpoints of the flow under test, and of its
+// responder on the other node, after every round, keyed by the step the flow is in. Other flows' checkpoints, such as
+// a node's own bookkeeping flows, are not counted. The largest size per step is printed on every run.
+//
+// The default limit has not yet been calibrated against measured sizes. Run this test, then set the default a small
+// margin above the largest size printed. Until then it can be changed with -Dcheckpoint.maxBytes.
+public class CheckpointSizeTests {
+    private static final int MAX_CHECKPOINT_BYTES = Integer.getInteger("checkpoint.maxBytes", 64 * 1024);
+    // A transfer takes a handful of rounds; far more means a flow is stuck waiting for a message that never comes.
+    private static final int MAX_ROUNDS = 200;
+
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void issueFlowCheckpointsStaySmall() throws Exception {
+        assertCheckpointsWithinLimit("HouseIssueFlow",
+                new HouseIssueFlow("Powai Mumbai", "2000sqft", 3, 2019), null);
+    }
+
+    @Test
+    public void transferFlowCheckpointsStaySmall() throws Exception {
+        CordaFuture<SignedTransaction> issue = nodeA.startFlow(new HouseIssueFlow("Powai Mumbai", "2000sqft", 3, 2019));
+        network.runNetwork();
+        issue.get();
+
+        assertCheckpointsWithinLimit("HouseTransferInitiator", new HouseTransferFlow.HouseTransferInitiator(
+                nodeB.getInfo().getLegalIdentities().get(0), "Powai Mumbai"),
+                HouseTransferFlow.HouseTransferResponder.class);
+    }
+
+    private void assertCheckpointsWithinLimit(String flowName, FlowLogic<SignedTransaction> flow,
+                                              Class<? extends FlowLogic<?>> responder) throws Exception {
+        Map<String, Integer> largestByStep = new LinkedHashMap<>();
+        CordaFuture<SignedTransaction> future = nodeA.startFlow(flow);
+        String flowId = flow.getRunId().getUuid().toString();
+        for (int round = 0; !future.isDone(); round++) {
+            if (round >= MAX_ROUNDS)
+                fail(flowName + " did not finish within " + MAX_ROUNDS + " network rounds, at step '"
+                        + flow.getProgressTracker().getCurrentStep().getLabel() + "'");
+            String step = flow.getProgressTracker().getCurrentStep().getLabel();
+            int largest = largestCheckpoint(nodeA, ImmutableList.of(flowId));
+            if (responder != null)
+                largest = Math.max(largest, largestCheckpoint(nodeB, runIds(nodeB, responder)));
+            largestByStep.merge(step, largest, Math::max);
+            network.runNetwork(1);
+        }
+        future.get();
+
+        System.out.println(flowName + " largest checkpoint in bytes per step: " + largestByStep);
+        assertFalse("No checkpoints were sampled", largestByStep.isEmpty());
+        for (Map.Entry<String, Integer> step : largestByStep.entrySet()) {
+            assertTrue(flowName + " checkpoint while '" + step.getKey() + "' is " + step.getValue()
+                    + " bytes, over the limit of " + MAX_CHECKPOINT_BYTES + "; largest per step: " + largestByStep,
+                    step.getValue() <= MAX_CHECKPOINT_BYTES);
+        }
+    }
+
+    private static List<String> runIds(StartedMockNode node, Class<? extends FlowLogic<?>> flowClass) {
+        List<String> ids = new ArrayList<>();
+        for (Pair<? extends FlowLogic<?>, CordaFuture<?>> running : node.findStateMachines(flowClass)) {
+            ids.add(running.getFirst().getRunId().getUuid().toString());
+        }
+        return ids;
+    }
+
+    private static int largestCheckpoint(StartedMockNode node, List<String> checkpointIds) {
+        return node.transaction(() -> {
+            int largest = 0;
+            try (PreparedStatement statement = node.getServices().jdbcSession().prepareStatement(
+                    "SELECT LENGTH(checkpoint_value) FROM node_checkpoints WHERE checkpoint_id = ?")) {
+                for (String checkpointId : checkpointIds) {
+                    statement.setString(1, checkpointId);
+                    try (ResultSet result = statement.executeQuery()) {
+                        if (result.next()) largest = Math.max(largest, result.getInt(1));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not read the checkpoints table", e);
+            }
+            return largest;
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.HouseState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.flows.FlowException;
+import net.corda.core.identity.Party;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+// The transfers are started by a service on its own thread, so the nodes run on their own threads too.
+public class FanOutTransferFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )).withThreadPerNode(true).withNetworkSendManuallyPumped(false));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+    private final StartedMockNode nodeC = network.createNode();
+
+    @Before
+    public void setup() throws Exception {
+        nodeA.startFlow(new HouseBatchIssueFlow(ImmutableList.of(
+                new HouseSpec("Powai Mumbai", "2000sqft", 3, 2019),
+                new HouseSpec("Andheri Mumbai", "1200sqft", 2, 2018),
+                new HouseSpec("Bandra Mumbai", "1500sqft", 2, 2017)))).get(30, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void everyOrderIsTransferredAndReportedInOrder() throws Exception {
+        HouseFanOutTransferFlow.Report report = nodeA.startFlow(new HouseFanOutTransferFlow(ImmutableList.of(
+                new HouseTransferOrder("Powai Mumbai", party(nodeB)),
+                new HouseTransferOrder("Andheri Mumbai", party(nodeC)),
+                new HouseTransferOrder("Bandra Mumbai", party(nodeB))), 2)).get(60, TimeUnit.SECONDS);
+
+        assertEquals(3, report.getSucceeded());
+        assertEquals("Andheri Mumbai", report.getOutcomes().get(1).getAddress());
+        assertEquals(2, ownedBy(nodeB));
+        assertEquals(1, ownedBy(nodeC));
+    }
+
+    @Test
+    public void aFailedOrderDoesNotStopTheOthers() throws Exception {
+        HouseFanOutTransferFlow.Report report = nodeA.startFlow(new HouseFanOutTransferFlow(ImmutableList.of(
+                new HouseTransferOrder("Powai Mumbai", party(nodeB)),
+                new HouseTransferOrder("Juhu Mumbai", party(nodeB)),
+                new HouseTransferOrder("Bandra Mumbai", party(nodeC))))).get(60, TimeUnit.SECONDS);
+
+        assertEquals(2, report.getSucceeded());
+        HouseFanOutTransferFlow.Outcome missing = report.getOutcomes().get(1);
+        assertFalse(missing.isSucceeded());
+        assertNotNull(missing.getError());
+        assertEquals(1, ownedBy(nodeB));
+        assertEquals(1, ownedBy(nodeC));
+    }
+
+    @Test
+    public void aHouseOrderedTwiceIsRejected() throws Exception {
+        try {
+            nodeA.startFlow(new HouseFanOutTransferFlow(ImmutableList.of(
+                    new HouseTransferOrder("Powai Mumbai", party(nodeB)),
+                    new HouseTransferOrder("Powai Mumbai", party(nodeC))))).get(30, TimeUnit.SECONDS);
+            fail("Expected the flow to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof FlowException);
+        }
+    }
+
+    @Test
+    public void aHouseOrderedTwiceUnderDifferentSpellingsIsRejected() throws Exception {
+        try {
+            nodeA.startFlow(new HouseFanOutTransferFlow(ImmutableList.of(
+                    new HouseTransferOrder("Powai Mumbai", party(nodeB)),
+                    new HouseTransferOrder("  powai   MUMBAI ", party(nodeC))))).get(30, TimeUnit.SECONDS);
+            fail("Expected the flow to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getMessage().contains("ordered more than once"));
+        }
+    }
+
+    private static int ownedBy(StartedMockNode node) {
+        return node.transaction(() -> node.getServices().getVaultService().queryBy(HouseState.class,
+                HouseQueries.byOwner(party(node).getName())).getStates().size());
+    }
+
+    private static Party party(StartedMockNode node) {
+        return node.getInfo().getLegalIdentities().get(0);
+    }
+}
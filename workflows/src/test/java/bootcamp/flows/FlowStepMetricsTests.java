@@ -0,0 +1,85 @@
+package bootcamp.flows;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class FlowStepMetricsTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void issueFlowRecordsATimingForEachStep() throws Exception {
+        CordaFuture<SignedTransaction> future = nodeA.startFlow(new HouseIssueFlow("Powai Mumbai", "2000sqft", 3, 2019));
+        network.runNetwork();
+        future.get();
+
+        List<FlowStepTiming> timings = nodeA.getServices().cordaService(FlowStepMetrics.class).getStepTimings().stream()
+                .filter(timing -> timing.getFlow().equals("HouseIssueFlow"))
+                .collect(Collectors.toList());
+        assertEquals(ImmutableList.of("Building the transaction", "Notarising and recording", "Signing the transaction",
+                "Verifying the transaction"),
+                timings.stream().map(FlowStepTiming::getStep).collect(Collectors.toList()));
+        for (FlowStepTiming timing : timings) {
+            assertEquals(1, timing.getCount());
+        }
+    }
+
+    @Test
+    public void stepTimingsArePublishedOverJmx() throws Exception {
+        CordaFuture<SignedTransaction> future = nodeA.startFlow(new HouseIssueFlow("Powai Mumbai", "2000sqft", 3, 2019));
+        network.runNetwork();
+        future.get();
+
+        ObjectName name = new ObjectName("bootcamp.flows:type=FlowStepMetrics,node="
+                + ObjectName.quote(nodeA.getInfo().getLegalIdentities().get(0).getName().toString()));
+        CompositeData[] timings = (CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(name, "StepTimings");
+        assertEquals(4, timings.length);
+        assertEquals("HouseIssueFlow", timings[0].get("flow"));
+    }
+
+    @Test
+    public void histogramPercentilesAreWithinABucketOfTheTrueValue() {
+        StepHistogram histogram = new StepHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMeanMillis(), 0.001);
+        assertEquals(100.0, histogram.getMaxMillis(), 0.001);
+        assertEquals(50.0, histogram.getPercentileMillis(50), 50 * 0.25);
+        assertEquals(95.0, histogram.getPercentileMillis(95), 95 * 0.25);
+        assertTrue(histogram.getPercentileMillis(99) <= histogram.getMaxMillis());
+    }
+}
@@ -0,0 +1,93 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HouseIndexServiceTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+    private Party partyA;
+    private Party partyB;
+
+    @Before
+    public void setup() throws Exception {
+        network.runNetwork();
+        partyA = nodeA.getInfo().getLegalIdentities().get(0);
+        partyB = nodeB.getInfo().getLegalIdentities().get(0);
+        CordaFuture<SignedTransaction> issue = nodeA.startFlow(new HouseIssueFlow("Powai Mumbai", "2000sqft", 3, 2019));
+        network.runNetwork();
+        issue.get();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void indexFindsAnIssuedHouseByAnyFormOfItsAddress() {
+        StateAndRef<House> house = find(nodeA, "  POWAI   mumbai ", partyA);
+        assertNotNull(house);
+        assertEquals("Powai Mumbai", house.getState().getData().getAddress());
+        assertNull(find(nodeA, "Andheri Mumbai", partyA));
+    }
+
+    @Test
+    public void indexFollowsATransfer() throws Exception {
+        StateAndRef<House> issued = find(nodeA, "Powai Mumbai", partyA);
+        CordaFuture<SignedTransaction> transfer = nodeA.startFlow(
+                new HouseTransferFlow.HouseTransferInitiator(partyB, "Powai Mumbai"));
+        network.runNetwork();
+        SignedTransaction transferTx = transfer.get();
+
+        assertEquals(issued.getRef(), transferTx.getTx().getInputs().get(0));
+        assertNull(find(nodeA, "Powai Mumbai", partyA));
+        // The builder still holds the house as a participant, now under its new owner.
+        assertEquals(transferTx.getId(), find(nodeA, "Powai Mumbai", partyB).getRef().getTxhash());
+        assertEquals(transferTx.getId(), find(nodeB, "Powai Mumbai", partyB).getRef().getTxhash());
+    }
+
+    @Test
+    public void indexFollowsAHouseSoldAndBoughtBack() throws Exception {
+        transfer(nodeA, partyB);
+        SignedTransaction back = transfer(nodeB, partyA);
+        assertEquals(back.getId(), find(nodeA, "Powai Mumbai", partyA).getRef().getTxhash());
+        assertNull(find(nodeB, "Powai Mumbai", partyB));
+
+        // Selling it again from the same node must spend the latest state, not the one it first sold.
+        SignedTransaction again = transfer(nodeA, partyB);
+        assertEquals(new StateRef(back.getId(), 0), again.getTx().getInputs().get(0));
+        assertNull(find(nodeA, "Powai Mumbai", partyA));
+        assertEquals(again.getId(), find(nodeA, "Powai Mumbai", partyB).getRef().getTxhash());
+        assertEquals(1, (int) nodeA.transaction(() -> nodeA.getServices().cordaService(HouseIndexService.class).size()));
+    }
+
+    private SignedTransaction transfer(StartedMockNode from, Party to) throws Exception {
+        CordaFuture<SignedTransaction> transfer = from.startFlow(
+                new HouseTransferFlow.HouseTransferInitiator(to, "Powai Mumbai"));
+        network.runNetwork();
+        return transfer.get();
+    }
+
+    private static StateAndRef<House> find(StartedMockNode node, String address, Party owner) {
+        return node.transaction(() -> node.getServices().cordaService(HouseIndexService.class).find(address, owner));
+    }
+}
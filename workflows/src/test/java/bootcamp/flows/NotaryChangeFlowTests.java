@@ -0,0 +1,88 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.HouseState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NotaryChangeFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )).withNotarySpecs(ImmutableList.of(
+            new MockNetworkNotarySpec(new CordaX500Name("Notary", "London", "GB")),
+            new MockNetworkNotarySpec(new CordaX500Name("Notary2", "Zurich", "CH"))
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+    private Party issuingNotary;
+    private Party targetNotary;
+
+    @Before
+    public void setup() throws Exception {
+        network.runNetwork();
+        CordaFuture<List<SignedTransaction>> issue = nodeA.startFlow(new HouseBatchIssueFlow(ImmutableList.of(
+                new HouseSpec("Powai Mumbai", "2000sqft", 3, 2019),
+                new HouseSpec("Andheri Mumbai", "1200sqft", 2, 2018),
+                new HouseSpec("Bandra Mumbai", "1500sqft", 2, 2017))));
+        network.runNetwork();
+        issuingNotary = issue.get().get(0).getNotary();
+        targetNotary = network.getNotaryNodes().stream()
+                .map(node -> node.getInfo().getLegalIdentities().get(0))
+                .filter(notary -> !notary.equals(issuingNotary))
+                .findFirst().get();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void flowMovesTheSelectedHousesInBatches() throws Exception {
+        Party partyA = nodeA.getInfo().getLegalIdentities().get(0);
+        CordaFuture<HouseNotaryChangeFlow.Report> future = nodeA.startFlow(new HouseNotaryChangeFlow(
+                HouseQueries.byOwner(partyA.getName()), targetNotary, 2, Duration.ZERO));
+        network.runNetwork();
+        HouseNotaryChangeFlow.Report report = future.get();
+
+        assertEquals(3, report.getMoved());
+        assertEquals(2, report.getBatches());
+        assertTrue(report.getFailed().isEmpty());
+        nodeA.transaction(() -> {
+            List<StateAndRef<HouseState>> houses = nodeA.getServices().getVaultService().queryBy(HouseState.class).getStates();
+            assertEquals(3, houses.size());
+            for (StateAndRef<HouseState> house : houses) {
+                assertEquals(targetNotary, house.getState().getNotary());
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void flowOnlyMovesTheHousesItWasAskedFor() throws Exception {
+        CordaFuture<HouseNotaryChangeFlow.Report> future = nodeA.startFlow(new HouseNotaryChangeFlow(
+                HouseQueries.byAddresses(ImmutableList.of("Powai Mumbai")), targetNotary, 2, Duration.ZERO));
+        network.runNetwork();
+
+        assertEquals(1, future.get().getMoved());
+        nodeA.transaction(() -> {
+            for (StateAndRef<HouseState> house : nodeA.getServices().getVaultService().queryBy(HouseState.class).getStates()) {
+                Party expected = house.getState().getData().getAddress().equals("Powai Mumbai") ? targetNotary : issuingNotary;
+                assertEquals(expected, house.getState().getNotary());
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package bootcamp.flows;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.testing.core.TestIdentity;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class NotarySelectorTests {
+    private final Party notaryA = new TestIdentity(new CordaX500Name("NotaryA", "London", "GB")).getParty();
+    private final Party notaryB = new TestIdentity(new CordaX500Name("NotaryB", "London", "GB")).getParty();
+    private final Party notaryC = new TestIdentity(new CordaX500Name("NotaryC", "London", "GB")).getParty();
+    private final List<Party> notaries = ImmutableList.of(notaryC, notaryA, notaryB);
+
+    @Test
+    public void firstStrategyAlwaysPicksTheFirstNotary() {
+        NotarySelector selector = new NotarySelector(NotarySelector.Strategy.FIRST);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(notaryC, selector.select(notaries, "address " + i));
+        }
+    }
+
+    @Test
+    public void roundRobinStrategyCyclesThroughEveryNotary() {
+        NotarySelector selector = new NotarySelector(NotarySelector.Strategy.ROUND_ROBIN);
+        assertEquals(notaryA, selector.select(notaries, "powai mumbai"));
+        assertEquals(notaryB, selector.select(notaries, "powai mumbai"));
+        assertEquals(notaryC, selector.select(notaries, "powai mumbai"));
+        assertEquals(notaryA, selector.select(notaries, "powai mumbai"));
+    }
+
+    @Test
+    public void addressHashStrategyIsStableAndSpreadsAddresses() {
+        NotarySelector selector = new NotarySelector(NotarySelector.Strategy.ADDRESS_HASH);
+        Party chosen = selector.select(notaries, "powai mumbai");
+        assertEquals(chosen, selector.select(ImmutableList.of(notaryB, notaryC, notaryA), "powai mumbai"));
+
+        Set<Party> used = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            used.add(selector.select(notaries, "house " + i));
+        }
+        assertEquals(3, used.size());
+    }
+
+    @Test
+    public void leastLoadedStrategyAvoidsTheSlowestNotary() {
+        NotarySelector selector = new NotarySelector(NotarySelector.Strategy.LEAST_LOADED);
+        recordNotarisation(selector, notaryA, 500);
+        recordNotarisation(selector, notaryB, 50);
+        recordNotarisation(selector, notaryC, 200);
+
+        assertEquals(notaryB, selector.select(notaries, "powai mumbai"));
+    }
+
+    @Test
+    public void leastLoadedStrategyWeighsNotarisationsInFlight() {
+        NotarySelector selector = new NotarySelector(NotarySelector.Strategy.LEAST_LOADED);
+        recordNotarisation(selector, notaryA, 100);
+        recordNotarisation(selector, notaryB, 100);
+        recordNotarisation(selector, notaryC, 100);
+
+        selector.notarisationStarted(notaryA);
+        selector.notarisationStarted(notaryB);
+        assertEquals(notaryC, selector.select(notaries, "powai mumbai"));
+    }
+
+    private static void recordNotarisation(NotarySelector selector, Party notary, long latencyMillis) {
+        selector.notarisationStarted(notary);
+        selector.notarisationFinished(notary, Duration.ofMillis(latencyMillis));
+    }
+}
@@ -0,0 +1,75 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.HouseState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+// The background distribution runs on the service's own thread, so the nodes run on their own threads too.
+public class ObserverDistributionTests {
+
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )).withThreadPerNode(true).withNetworkSendManuallyPumped(false));
+    private final StartedMockNode builder = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+    private final StartedMockNode nodeC = network.createNode();
+
+    @Before
+    public void setup() throws Exception {
+        builder.startFlow(new HouseIssueFlow("Powai Mumbai", "2000sqft", 3, 2019)).get(30, TimeUnit.SECONDS);
+        builder.startFlow(new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"))
+                .get(30, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void inlineResaleIsRecordedByTheBuilderBeforeTheFlowReturns() throws Exception {
+        SignedTransaction resale = nodeB.startFlow(new HouseTransferFlow.HouseTransferInitiator(party(nodeC),
+                "Powai Mumbai", ObserverDistributionService.Mode.INLINE)).get(30, TimeUnit.SECONDS);
+
+        assertTrue(recorded(builder, resale));
+    }
+
+    @Test
+    public void backgroundResaleReachesTheBuilderAfterTheFlowReturns() throws Exception {
+        SignedTransaction resale = nodeB.startFlow(new HouseTransferFlow.HouseTransferInitiator(party(nodeC),
+                "Powai Mumbai", ObserverDistributionService.Mode.BACKGROUND)).get(30, TimeUnit.SECONDS);
+
+        HouseState house = (HouseState) resale.getTx().getOutputStates().get(0);
+        assertEquals(party(nodeC), house.getOwner());
+
+        ObserverDistributionService distribution = nodeB.getServices().cordaService(ObserverDistributionService.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while ((!recorded(builder, resale) || distribution.getPending() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(recorded(builder, resale));
+        assertEquals(0, distribution.getPending());
+    }
+
+    private static boolean recorded(StartedMockNode node, SignedTransaction stx) {
+        return node.transaction(() ->
+                node.getServices().getValidatedTransactions().getTransaction(stx.getId()) != null);
+    }
+
+    private static Party party(StartedMockNode node) {
+        return node.getInfo().getLegalIdentities().get(0);
+    }
+}
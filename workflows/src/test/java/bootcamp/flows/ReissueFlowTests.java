@@ -0,0 +1,171 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseContract;
+import bootcamp.contracts.HouseState;
+import co.paralleluniverse.fibers.Suspendable;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.CollectSignaturesFlow;
+import net.corda.core.flows.FinalityFlow;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.FlowSession;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class ReissueFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+
+    @Before
+    public void setup() throws Exception {
+        network.runNetwork();
+        run(nodeA, new HouseIssueFlow("Powai Mumbai", "2000sqft", 3, 2019));
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void theBuilderReissuesTheOwnersHouseWithoutHistory() throws Exception {
+        run(nodeA, new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"));
+        HouseState before = houseOwnedBy(nodeB).getState().getData();
+
+        SignedTransaction reissue = run(nodeB, new HouseReissueFlow.HouseReissueInitiator("Powai Mumbai"));
+
+        assertTrue(reissue.getTx().getInputs().isEmpty());
+        assertTrue(reissue.getTx().getCommands().get(0).getValue() instanceof HouseContract.Commands.Reissue);
+        StateAndRef<HouseState> after = houseOwnedBy(nodeB);
+        assertEquals(reissue.getId(), after.getRef().getTxhash());
+        assertEquals(before.getAddress(), after.getState().getData().getAddress());
+        assertEquals(before.getBuilder(), after.getState().getData().getBuilder());
+    }
+
+    @Test
+    public void aBuilderReissuesItsOwnHouseLocally() throws Exception {
+        SignedTransaction reissue = run(nodeA, new HouseReissueFlow.HouseReissueInitiator("Powai Mumbai"));
+
+        assertTrue(reissue.getTx().getInputs().isEmpty());
+        assertEquals(reissue.getId(), houseOwnedBy(nodeA).getRef().getTxhash());
+    }
+
+    @Test
+    public void anOwnerRecoversAHouseThatWasExitedButNotReissued() throws Exception {
+        run(nodeA, new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"));
+        SignedTransaction exit = run(nodeB, new ExitOnly("Powai Mumbai"));
+        assertNoHouseOwnedBy(nodeB);
+
+        SignedTransaction reissue = run(nodeB, new HouseReissueFlow.HouseReissueRecoveryInitiator(exit.getId()));
+
+        HouseContract.Commands.Reissue command =
+                (HouseContract.Commands.Reissue) reissue.getTx().getCommands().get(0).getValue();
+        assertEquals(exit.getId(), command.getExitTxId());
+        assertEquals(reissue.getId(), houseOwnedBy(nodeB).getRef().getTxhash());
+    }
+
+    @Test
+    public void aBuilderRecoversItsOwnExitedHouseLocally() throws Exception {
+        SignedTransaction exit = run(nodeA, new ExitOnly("Powai Mumbai"));
+
+        SignedTransaction reissue = run(nodeA, new HouseReissueFlow.HouseReissueRecoveryInitiator(exit.getId()));
+
+        assertEquals(reissue.getId(), houseOwnedBy(nodeA).getRef().getTxhash());
+    }
+
+    @Test
+    public void anExitIsReissuedOnlyOnce() throws Exception {
+        run(nodeA, new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"));
+        SignedTransaction exit = run(nodeB, new ExitOnly("Powai Mumbai"));
+        run(nodeB, new HouseReissueFlow.HouseReissueRecoveryInitiator(exit.getId()));
+
+        try {
+            run(nodeB, new HouseReissueFlow.HouseReissueRecoveryInitiator(exit.getId()));
+            fail("A second re-issue of the same exit should be refused");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getMessage().contains("already re-issued"));
+        }
+        houseOwnedBy(nodeB);
+    }
+
+    @Test
+    public void onlyAnExitCanBeRecovered() throws Exception {
+        SignedTransaction transfer = run(nodeA,
+                new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"));
+
+        try {
+            run(nodeB, new HouseReissueFlow.HouseReissueRecoveryInitiator(transfer.getId()));
+            fail("A transfer is not an exit");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getMessage().contains("is not the exit of a house"));
+        }
+    }
+
+    // Stops after the exit is notarised, as HouseReissueInitiator would if the re-issue failed, leaving no house.
+    public static class ExitOnly extends HouseReissueFlow.HouseReissueInitiator {
+
+        public ExitOnly(String address) {
+            super(address);
+        }
+
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            StateAndRef<House> house = getInputState();
+            SignedTransaction signedExit = getServiceHub().signInitialTransaction(getExitTransactionBuilder(house));
+            Party builder = house.getState().getData().getBuilder();
+            if(builder.equals(getOurIdentity()))
+                return subFlow(new FinalityFlow(signedExit, Collections.emptyList()));
+            FlowSession builderSession = initiateFlow(builder);
+            return subFlow(new FinalityFlow(subFlow(new CollectSignaturesFlow(signedExit,
+                    ImmutableList.of(builderSession))), ImmutableList.of(builderSession)));
+        }
+    }
+
+    private <T> T run(StartedMockNode node, FlowLogic<T> flow) throws Exception {
+        CordaFuture<T> future = node.startFlow(flow);
+        network.runNetwork();
+        return future.get();
+    }
+
+    private static StateAndRef<HouseState> houseOwnedBy(StartedMockNode node) {
+        return node.transaction(() -> {
+            List<StateAndRef<HouseState>> houses = node.getServices().getVaultService()
+                    .queryBy(HouseState.class, HouseQueries.byOwner(party(node).getName())).getStates();
+            assertEquals(1, houses.size());
+            return houses.get(0);
+        });
+    }
+
+    private static void assertNoHouseOwnedBy(StartedMockNode node) {
+        node.transaction(() -> {
+            assertTrue(node.getServices().getVaultService()
+                    .queryBy(HouseState.class, HouseQueries.byOwner(party(node).getName())).getStates().isEmpty());
+            return null;
+        });
+    }
+
+    private static Party party(StartedMockNode node) {
+        return node.getInfo().getLegalIdentities().get(0);
+    }
+}
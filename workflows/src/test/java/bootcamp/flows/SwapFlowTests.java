@@ -0,0 +1,109 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.HouseState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.FlowException;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class SwapFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+    private final StartedMockNode nodeC = network.createNode();
+
+    @Before
+    public void setup() throws Exception {
+        network.runNetwork();
+        issue(nodeA, "Powai Mumbai");
+        issue(nodeB, "Andheri Mumbai");
+        issue(nodeC, "Bandra Mumbai");
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void twoOwnersSwapHousesInOneTransaction() throws Exception {
+        SignedTransaction signedTransaction = swap(nodeA, ImmutableList.of(
+                new SwapLeg("Powai Mumbai", party(nodeA), party(nodeB)),
+                new SwapLeg("Andheri Mumbai", party(nodeB), party(nodeA)))).get();
+
+        assertEquals(2, signedTransaction.getTx().getInputs().size());
+        assertEquals(2, signedTransaction.getTx().getOutputStates().size());
+        assertEquals("Andheri Mumbai", onlyHouse(nodeA).getAddress());
+        assertEquals("Powai Mumbai", onlyHouse(nodeB).getAddress());
+    }
+
+    @Test
+    public void threeOwnersRotateHousesInOneTransaction() throws Exception {
+        swap(nodeA, ImmutableList.of(
+                new SwapLeg("Powai Mumbai", party(nodeA), party(nodeB)),
+                new SwapLeg("Andheri Mumbai", party(nodeB), party(nodeC)),
+                new SwapLeg("Bandra Mumbai", party(nodeC), party(nodeA)))).get();
+
+        assertEquals("Bandra Mumbai", onlyHouse(nodeA).getAddress());
+        assertEquals("Powai Mumbai", onlyHouse(nodeB).getAddress());
+        assertEquals("Andheri Mumbai", onlyHouse(nodeC).getAddress());
+    }
+
+    @Test
+    public void anOwnerRefusesToGiveAHouseAwayForNothing() throws Exception {
+        CordaFuture<SignedTransaction> future = swap(nodeA, ImmutableList.of(
+                new SwapLeg("Powai Mumbai", party(nodeA), party(nodeC)),
+                new SwapLeg("Andheri Mumbai", party(nodeB), party(nodeC))));
+        try {
+            future.get();
+            fail("Expected the swap to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof FlowException);
+        }
+        assertEquals("Powai Mumbai", onlyHouse(nodeA).getAddress());
+        assertEquals("Andheri Mumbai", onlyHouse(nodeB).getAddress());
+    }
+
+    private CordaFuture<SignedTransaction> swap(StartedMockNode node, List<SwapLeg> legs) {
+        CordaFuture<SignedTransaction> future = node.startFlow(new HouseSwapFlow.HouseSwapInitiator(legs));
+        network.runNetwork();
+        return future;
+    }
+
+    private void issue(StartedMockNode node, String address) throws Exception {
+        CordaFuture<SignedTransaction> future = node.startFlow(new HouseIssueFlow(address, "2000sqft", 3, 2019));
+        network.runNetwork();
+        future.get();
+    }
+
+    // Builders keep the houses they built in their vaults, so only the ones the node owns are counted.
+    private static HouseState onlyHouse(StartedMockNode node) {
+        return node.transaction(() -> {
+            List<StateAndRef<HouseState>> houses = node.getServices().getVaultService()
+                    .queryBy(HouseState.class, HouseQueries.byOwner(party(node).getName())).getStates();
+            assertEquals(1, houses.size());
+            return houses.get(0).getState().getData();
+        });
+    }
+
+    private static Party party(StartedMockNode node) {
+        return node.getInfo().getLegalIdentities().get(0);
+    }
+}
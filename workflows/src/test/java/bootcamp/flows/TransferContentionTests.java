@@ -0,0 +1,165 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.House;
+import bootcamp.contracts.HouseState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.FlowException;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.utilities.NonEmptySet;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+// The contending flows sleep between attempts, so the nodes run on their own threads rather than being pumped.
+public class TransferContentionTests {
+
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )).withThreadPerNode(true).withNetworkSendManuallyPumped(false));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+    private final StartedMockNode nodeC = network.createNode();
+
+    @Before
+    public void setup() throws Exception {
+        nodeA.startFlow(new HouseIssueFlow("Powai Mumbai", "2000sqft", 3, 2019)).get(30, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void onlyOneOfTwoConcurrentTransfersOfTheSameHouseSucceeds() throws Exception {
+        CordaFuture<SignedTransaction> toB = nodeA.startFlow(
+                new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"));
+        CordaFuture<SignedTransaction> toC = nodeA.startFlow(
+                new HouseTransferFlow.HouseTransferInitiator(party(nodeC), "Powai Mumbai"));
+
+        boolean toBSucceeded = succeeded(toB);
+        boolean toCSucceeded = succeeded(toC);
+        assertTrue(toBSucceeded ^ toCSucceeded);
+
+        StartedMockNode winner = toBSucceeded ? nodeB : nodeC;
+        StartedMockNode loser = toBSucceeded ? nodeC : nodeB;
+        assertEquals(1, houses(winner));
+        assertEquals(0, houses(loser));
+    }
+
+    @Test
+    public void aTransferOfAHouseWeNoLongerOwnFails() throws Exception {
+        nodeA.startFlow(new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"))
+                .get(30, TimeUnit.SECONDS);
+
+        CordaFuture<SignedTransaction> future = nodeA.startFlow(
+                new HouseTransferFlow.HouseTransferInitiator(party(nodeC), "Powai Mumbai"));
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            fail("Expected the second transfer to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof FlowException);
+        }
+    }
+
+    @Test
+    public void aTransferWhoseInputWasAlreadySpentReportsTheHouseAsGone() throws Exception {
+        StateAndRef<HouseState> issued = nodeA.transaction(() ->
+                nodeA.getServices().getVaultService().queryBy(HouseState.class).getStates().get(0));
+        nodeA.startFlow(new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"))
+                .get(30, TimeUnit.SECONDS);
+
+        // As if another flow had consumed the house between our lookup and our reservation.
+        CordaFuture<SignedTransaction> future = nodeA.startFlow(
+                new StaleInputTransfer(party(nodeC), "Powai Mumbai", issued));
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            fail("Expected the transfer to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof FlowException);
+            assertEquals("House Not Found", e.getCause().getMessage());
+        }
+        assertEquals(1, houses(nodeB));
+    }
+
+    @Test
+    public void aHouseLockedByAnotherFlowThatGivesUpStaysIndexed() throws Exception {
+        StateAndRef<HouseState> issued = nodeA.transaction(() ->
+                nodeA.getServices().getVaultService().queryBy(HouseState.class).getStates().get(0));
+        UUID otherFlow = UUID.randomUUID();
+        nodeA.transaction(() -> {
+            nodeA.getServices().getVaultService().softLockReserve(otherFlow, NonEmptySet.of(issued.getRef()));
+            return null;
+        });
+
+        try {
+            nodeA.startFlow(new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"))
+                    .get(30, TimeUnit.SECONDS);
+            fail("Expected the transfer to give up on the locked house");
+        } catch (ExecutionException e) {
+            assertEquals("House Is Being Transferred By Another Flow", e.getCause().getMessage());
+        }
+
+        nodeA.transaction(() -> {
+            nodeA.getServices().getVaultService().softLockRelease(otherFlow, NonEmptySet.of(issued.getRef()));
+            return null;
+        });
+        StateAndRef<House> indexed = nodeA.transaction(() -> nodeA.getServices()
+                .cordaService(HouseIndexService.class).find("Powai Mumbai", party(nodeA)));
+        assertEquals(issued.getRef(), indexed.getRef());
+        nodeA.startFlow(new HouseTransferFlow.HouseTransferInitiator(party(nodeB), "Powai Mumbai"))
+                .get(30, TimeUnit.SECONDS);
+        assertEquals(1, houses(nodeB));
+    }
+
+    // Resolves its input to an already spent state the first time, then looks it up as usual.
+    public static class StaleInputTransfer extends HouseTransferFlow.HouseTransferInitiator {
+        private StateAndRef<HouseState> stale;
+
+        public StaleInputTransfer(Party newOwner, String address, StateAndRef<HouseState> stale) {
+            super(newOwner, address);
+            this.stale = stale;
+        }
+
+        @Override
+        protected StateAndRef<? extends House> queryInputState() throws FlowException {
+            if (stale == null) return super.queryInputState();
+            StateAndRef<HouseState> input = stale;
+            stale = null;
+            return input;
+        }
+    }
+
+    private static boolean succeeded(CordaFuture<SignedTransaction> future) throws Exception {
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof FlowException);
+            return false;
+        }
+    }
+
+    private static int houses(StartedMockNode node) {
+        return node.transaction(() ->
+                node.getServices().getVaultService().queryBy(HouseState.class).getStates().size());
+    }
+
+    private static Party party(StartedMockNode node) {
+        return node.getInfo().getLegalIdentities().get(0);
+    }
+}
@@ -1,9 +1,14 @@
 package bootcamp.flows;
 
+import bootcamp.contracts.House;
 import bootcamp.contracts.HouseContract;
 import bootcamp.contracts.HouseState;
 import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
 import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.FlowException;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
 import net.corda.testing.node.MockNetwork;
 import net.corda.testing.node.MockNetworkParameters;
@@ -115,4 +120,36 @@ public class TransferFlowTests {
         assertTrue(txBuilder.commands().get(0).getSigners().contains(nodeA.getInfo().getLegalIdentities().get(0).getOwningKey())
             && txBuilder.commands().get(0).getSigners().contains(nodeB.getInfo().getLegalIdentities().get(0).getOwningKey()));
     }
+
+    @Test
+    public void flowQueriesTheVaultForItsInputOnlyOnce() throws Exception {
+        network.runNetwork();
+        CountingTransferInitiator flow = new CountingTransferInitiator(
+                nodeB.getInfo().getLegalIdentities().get(0),"Powai Mumbai");
+        CordaFuture<SignedTransaction> future = nodeA.startFlow(flow);
+        network.runNetwork();
+        future.get();
+
+        flow.getInputState();
+        flow.getOutputState();
+        flow.getNotaryFromInputState();
+        flow.getTransactionBuilder();
+
+        assertEquals(1, flow.vaultQueries);
+    }
+
+    // Counts how often the initiator goes to the vault for its input.
+    static class CountingTransferInitiator extends HouseTransferFlow.HouseTransferInitiator {
+        private int vaultQueries = 0;
+
+        CountingTransferInitiator(Party newOwner, String address) {
+            super(newOwner, address);
+        }
+
+        @Override
+        protected StateAndRef<? extends House> queryInputState() throws FlowException {
+            vaultQueries++;
+            return super.queryInputState();
+        }
+    }
 }
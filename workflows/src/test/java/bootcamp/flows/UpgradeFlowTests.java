@@ -0,0 +1,140 @@
+package bootcamp.flows;
+
+import bootcamp.contracts.AreaUnit;
+import bootcamp.contracts.HouseContractV2;
+import bootcamp.contracts.HouseState;
+import bootcamp.contracts.HouseStateV2;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class UpgradeFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("bootcamp.contracts"),
+            TestCordapp.findCordapp("bootcamp.flows")
+    )));
+    private final StartedMockNode nodeA = network.createNode();
+    private final StartedMockNode nodeB = network.createNode();
+
+    @Before
+    public void setup() throws Exception {
+        network.runNetwork();
+        CordaFuture<List<SignedTransaction>> issue = nodeA.startFlow(new HouseBatchIssueFlow(ImmutableList.of(
+                new HouseSpec("Powai Mumbai", "2000sqft", 3, 2019),
+                new HouseSpec("Andheri Mumbai", "110 sqm", 2, 2018),
+                new HouseSpec("Bandra Mumbai", "spacious", 2, 2017),
+                new HouseSpec("Juhu Mumbai", "0sqft", 1, 2016))));
+        network.runNetwork();
+        issue.get();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void flowUpgradesEveryParseableHouseAndSkipsTheRest() throws Exception {
+        CordaFuture<HouseUpgradeFlow.Report> future = nodeA.startFlow(new HouseUpgradeFlow.HouseUpgradeInitiator(2));
+        network.runNetwork();
+        HouseUpgradeFlow.Report report = future.get();
+
+        assertEquals(2, report.getUpgraded());
+        assertEquals(2, report.getSkipped().size());
+        nodeA.transaction(() -> {
+            List<StateAndRef<HouseStateV2>> upgraded = nodeA.getServices().getVaultService()
+                    .queryBy(HouseStateV2.class).getStates();
+            assertEquals(2, upgraded.size());
+            for (StateAndRef<HouseStateV2> house : upgraded) {
+                if (house.getState().getData().getAddress().equals("Andheri Mumbai")) {
+                    assertEquals(110, house.getState().getData().getBuildArea());
+                    assertEquals(AreaUnit.SQUARE_METRES, house.getState().getData().getAreaUnit());
+                }
+            }
+            List<StateAndRef<HouseState>> legacy = nodeA.getServices().getVaultService()
+                    .queryBy(HouseState.class).getStates();
+            assertEquals(2, legacy.size());
+            for (StateAndRef<HouseState> house : legacy) {
+                assertTrue(ImmutableList.of("Bandra Mumbai", "Juhu Mumbai")
+                        .contains(house.getState().getData().getAddress()));
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void theBuilderAuthorisesTheUpgradeOfAHouseItNoLongerOwns() throws Exception {
+        Party partyB = nodeB.getInfo().getLegalIdentities().get(0);
+        CordaFuture<SignedTransaction> transfer = nodeA.startFlow(
+                new HouseTransferFlow.HouseTransferInitiator(partyB, "Powai Mumbai"));
+        network.runNetwork();
+        transfer.get();
+
+        CordaFuture<HouseUpgradeFlow.Report> future = nodeB.startFlow(new HouseUpgradeFlow.HouseUpgradeInitiator());
+        network.runNetwork();
+
+        assertEquals(1, future.get().getUpgraded());
+        nodeB.transaction(() -> {
+            List<StateAndRef<HouseStateV2>> upgraded = nodeB.getServices().getVaultService()
+                    .queryBy(HouseStateV2.class).getStates();
+            assertEquals(1, upgraded.size());
+            assertEquals(partyB, upgraded.get(0).getState().getData().getOwner());
+            return null;
+        });
+    }
+
+    @Test
+    public void anUpgradedHouseIsTransferredAsAHouseStateV2() throws Exception {
+        Party partyB = nodeB.getInfo().getLegalIdentities().get(0);
+        CordaFuture<HouseUpgradeFlow.Report> upgrade = nodeA.startFlow(new HouseUpgradeFlow.HouseUpgradeInitiator());
+        network.runNetwork();
+        assertEquals(2, upgrade.get().getUpgraded());
+
+        CordaFuture<SignedTransaction> transfer = nodeA.startFlow(
+                new HouseTransferFlow.HouseTransferInitiator(partyB, "Powai Mumbai"));
+        network.runNetwork();
+
+        ContractState output = transfer.get().getTx().getOutputStates().get(0);
+        assertTrue(output instanceof HouseStateV2);
+        assertEquals(partyB, ((HouseStateV2) output).getOwner());
+        assertTrue(transfer.get().getTx().getCommands().get(0).getValue() instanceof HouseContractV2.Commands.Transfer);
+        nodeB.transaction(() -> {
+            assertEquals(1, nodeB.getServices().getVaultService().queryBy(HouseStateV2.class).getStates().size());
+            return null;
+        });
+    }
+
+    @Test
+    public void housesOfBothVersionsCannotBeTransferredTogether() throws Exception {
+        Party partyB = nodeB.getInfo().getLegalIdentities().get(0);
+        CordaFuture<HouseUpgradeFlow.Report> upgrade = nodeA.startFlow(new HouseUpgradeFlow.HouseUpgradeInitiator());
+        network.runNetwork();
+        upgrade.get();
+
+        CordaFuture<SignedTransaction> transfer = nodeA.startFlow(new HouseBulkTransferFlow.HouseBulkTransferInitiator(
+                partyB, ImmutableList.of("Powai Mumbai", "Bandra Mumbai")));
+        network.runNetwork();
+
+        try {
+            transfer.get();
+            fail("Expected a HouseStateV2 and a HouseState to be refused together");
+        } catch (ExecutionException e) {
+            assertEquals("Houses of different versions cannot be transferred together", e.getCause().getMessage());
+        }
+    }
+}